@@ -0,0 +1,133 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Building, saving and loading a whole dictionary, one operation each.
+ *
+ * @author hedge
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BuildBenchmark {
+    
+    @Param({ "100000" })
+    public int stems;
+    
+    @Param({ "cyrillic" })
+    public String alphabet;
+    
+    @Param({ "12" })
+    public int paradigmSize;
+    
+    private List<String> words;
+    private List<String> sorted;
+    private Automaton automaton;
+    private byte[] binary;
+    private byte[] compact;
+    
+    @Setup
+    public void setUp() throws IOException {
+        words = new Corpus(stems, Corpus.alphabet(alphabet), 40, paradigmSize, 42).words();
+        sorted = new ArrayList<>(words);
+        Collections.sort(sorted);
+        automaton = add();
+        
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        automaton.save(output, false);
+        binary = output.toByteArray();
+        
+        output = new ByteArrayOutputStream();
+        automaton.saveCompact(output);
+        compact = output.toByteArray();
+    }
+    
+    @Benchmark
+    public Automaton add() {
+        Automaton result = new Automaton();
+        
+        for (String word : words) {
+            result.add(word);
+        }
+        
+        return result;
+    }
+    
+    @Benchmark
+    public Automaton buildSorted() {
+        AutomatonBuilder builder = new AutomatonBuilder();
+        
+        for (String word : sorted) {
+            builder.add(word);
+        }
+        
+        return builder.build();
+    }
+    
+    @Benchmark
+    public byte[] save() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(binary.length);
+        automaton.save(output, false);
+        return output.toByteArray();
+    }
+    
+    @Benchmark
+    public Dictionary load() throws IOException {
+        return Dictionary.load(new ByteArrayInputStream(binary));
+    }
+    
+    @Benchmark
+    public Dictionary loadCompact() throws IOException {
+        return Dictionary.load(new ByteArrayInputStream(compact));
+    }
+    
+    @Benchmark
+    public FlatDictionary loadFlat() throws IOException {
+        return FlatDictionary.load(new ByteArrayInputStream(binary));
+    }
+    
+}
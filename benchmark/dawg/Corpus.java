@@ -0,0 +1,127 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic morphology-like word list. Random stems are inflected with
+ * paradigms, runs of consecutive entries of a shared ending table, so
+ * endings are shared between stems the way inflections of a real lexicon
+ * are. Longer paradigms mean more words per stem and more suffix sharing.
+ *
+ * @author hedge
+ */
+public class Corpus {
+    public static final String CYRILLIC = "абвгдеёжзийклмнопрстуфхцчшщъыьэюя";
+    public static final String LATIN = "abcdefghijklmnopqrstuvwxyz";
+    
+    private final List<String> words;
+    private final List<String> stems;
+    
+    /**
+     * @param stemCount number of stems
+     * @param alphabet characters of stems and endings
+     * @param endingCount size of the shared ending table
+     * @param paradigmSize number of endings each stem takes
+     */
+    public Corpus(int stemCount, String alphabet, int endingCount, int paradigmSize, long seed) {
+        Random random = new Random(seed);
+        String[] endings = new String[endingCount];
+        
+        for (int i = 0; i < endingCount; i++) {
+            endings[i] = word(random, alphabet, i == 0 ? 0 : 1 + random.nextInt(3));
+        }
+        
+        words = new ArrayList<>(stemCount * paradigmSize);
+        stems = new ArrayList<>(stemCount);
+        
+        for (int i = 0; i < stemCount; i++) {
+            String stem = word(random, alphabet, 3 + random.nextInt(6));
+            int paradigm = random.nextInt(endingCount);
+            stems.add(stem);
+            
+            for (int j = 0; j < paradigmSize; j++) {
+                words.add(stem + endings[(paradigm + j) % endingCount]);
+            }
+        }
+    }
+    
+    /**
+     * @return alphabet by name, cyrillic, latin or mixed, other values are
+     * taken as the alphabet itself
+     */
+    public static String alphabet(String name) {
+        switch (name) {
+            case "cyrillic":
+                return CYRILLIC;
+            case "latin":
+                return LATIN;
+            case "mixed":
+                return CYRILLIC + LATIN + "0123456789";
+            default:
+                return name;
+        }
+    }
+    
+    /**
+     * @return generated words grouped by stem, duplicates are possible
+     */
+    public List<String> words() {
+        return words;
+    }
+    
+    public List<String> stems() {
+        return stems;
+    }
+    
+    /**
+     * @return as many words as there are stems, every other one altered so
+     * that the lookup is likely to miss
+     */
+    public String[] queries(long seed) {
+        Random random = new Random(seed);
+        String[] queries = new String[stems.size()];
+        
+        for (int i = 0; i < queries.length; i++) {
+            String word = words.get(random.nextInt(words.size()));
+            queries[i] = i % 2 == 0 ? word : word.substring(0, word.length() - 1) + word.charAt(0);
+        }
+        
+        return queries;
+    }
+    
+    private static String word(Random random, String alphabet, int length) {
+        char[] word = new char[length];
+        
+        for (int i = 0; i < length; i++) {
+            word[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+        }
+        
+        return new String(word);
+    }
+    
+}
@@ -0,0 +1,95 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.io.IOException;
+
+/**
+ * Heap taken by every dictionary representation of the benchmark corpus,
+ * measured as used heap that is freed when it is released, after full
+ * collections. Mapped and segmented dictionaries keep their data off heap.
+ * Run with a fixed heap and serial collector, e.g. -XX:+UseSerialGC -Xms2g
+ * -Xmx2g, optional arguments are the number of stems, the alphabet and the
+ * paradigm size.
+ *
+ * @author hedge
+ */
+public class Footprint {
+    
+    // Keeps the measured dictionary reachable while the heap is measured
+    private static Object retained;
+    
+    public static void main(String[] args) throws IOException {
+        int stems = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        String alphabet = args.length > 1 ? args[1] : "cyrillic";
+        int paradigmSize = args.length > 2 ? Integer.parseInt(args[2]) : 12;
+        
+        long before = usedMemory();
+        Automaton automaton = build(stems, alphabet, paradigmSize);
+        
+        // Saving fills in counts kept by the automaton; charge them to it
+        for (String name : Implementations.NAMES) {
+            Implementations.create(name, automaton);
+        }
+        
+        long memory = usedMemory() - before;
+        
+        System.out.printf("%,d entries%n", automaton.wordCount());
+        System.out.printf("%-10s %,12d bytes of heap%n", "automaton", memory);
+        
+        for (String name : Implementations.NAMES) {
+            if (!name.equals("automaton")) {
+                // Measured against the heap after release, which is steadier than before
+                retained = Implementations.create(name, automaton);
+                memory = usedMemory();
+                retained = null;
+                memory -= usedMemory();
+                
+                System.out.printf("%-10s %,12d bytes of heap%n", name, memory);
+            }
+        }
+    }
+    
+    // The corpus becomes garbage on return, so it is not counted
+    private static Automaton build(int stems, String alphabet, int paradigmSize) {
+        Corpus corpus = new Corpus(stems, Corpus.alphabet(alphabet), 40, paradigmSize, 42);
+        Automaton automaton = new Automaton();
+        
+        for (String word : corpus.words()) {
+            automaton.add(word);
+        }
+        
+        return automaton;
+    }
+    
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
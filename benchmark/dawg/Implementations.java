@@ -0,0 +1,84 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Dictionary representations compared by the benchmarks, all made from the
+ * same automaton. Mapped and segmented ones are written to temporary files
+ * deleted on exit.
+ *
+ * @author hedge
+ */
+public class Implementations {
+    public static final String[] NAMES = { "automaton", "dictionary", "flat", "compact", "mapped", "segmented" };
+    
+    public static AbstractDictionary create(String name, Automaton automaton) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        
+        switch (name) {
+            case "automaton":
+                return automaton;
+            case "dictionary":
+                automaton.save(output, false);
+                return Dictionary.load(new ByteArrayInputStream(output.toByteArray()));
+            case "flat":
+                return new FlatDictionary(automaton);
+            case "compact":
+                automaton.saveCompact(output);
+                return FlatDictionary.load(new ByteArrayInputStream(output.toByteArray()));
+            case "mapped":
+                Path mapped = temporaryFile();
+                
+                try (OutputStream stream = Files.newOutputStream(mapped)) {
+                    new FlatDictionary(automaton).save(stream);
+                }
+                
+                return MappedDictionary.map(mapped);
+            case "segmented":
+                Path segmented = temporaryFile();
+                
+                try (OutputStream stream = Files.newOutputStream(segmented)) {
+                    SegmentedDictionary.save(automaton, stream);
+                }
+                
+                return SegmentedDictionary.map(segmented);
+            default:
+                throw new IllegalArgumentException("Unknown implementation: " + name);
+        }
+    }
+    
+    private static Path temporaryFile() throws IOException {
+        Path file = Files.createTempFile("dawg", ".bin");
+        file.toFile().deleteOnExit();
+        return file;
+    }
+    
+}
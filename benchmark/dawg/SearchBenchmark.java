@@ -0,0 +1,123 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Single queries against a built dictionary. Sample time mode reports
+ * latency percentiles next to the throughput.
+ *
+ * @author hedge
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+    
+    @Param({ "100000" })
+    public int stems;
+    
+    @Param({ "cyrillic" })
+    public String alphabet;
+    
+    @Param({ "12" })
+    public int paradigmSize;
+    
+    @Param({ "automaton", "dictionary", "flat", "compact", "mapped", "segmented" })
+    public String implementation;
+    
+    private AbstractDictionary dictionary;
+    private String[] queries;
+    private String[] prefixes;
+    private int next;
+    
+    @Setup
+    public void setUp() throws IOException {
+        Corpus corpus = new Corpus(stems, Corpus.alphabet(alphabet), 40, paradigmSize, 42);
+        Automaton automaton = new Automaton();
+        
+        for (String word : corpus.words()) {
+            automaton.add(word);
+        }
+        
+        dictionary = Implementations.create(implementation, automaton);
+        queries = corpus.queries(7);
+        List<String> stemList = corpus.stems();
+        prefixes = stemList.toArray(new String[stemList.size()]);
+    }
+    
+    private int next() {
+        next = next + 1 == queries.length ? 0 : next + 1;
+        return next;
+    }
+    
+    @Benchmark
+    public boolean contains() {
+        return dictionary.contains(queries[next()]);
+    }
+    
+    @Benchmark
+    public List<String> listSuffixes() {
+        return dictionary.listSuffixes(prefixes[next()]);
+    }
+    
+    @Benchmark
+    public void traverse(final Blackhole blackhole) {
+        dictionary.listSuffixes(prefixes[next()], new ICharCollector() {
+            @Override
+            public void collect(char[] buffer, int length) {
+                blackhole.consume(length);
+            }
+        });
+    }
+    
+    @Benchmark
+    public void iterate(Blackhole blackhole) {
+        Iterator<String> iterator = dictionary.iterateSuffixes(prefixes[next()]);
+        
+        while (iterator.hasNext()) {
+            blackhole.consume(iterator.next());
+        }
+    }
+    
+}
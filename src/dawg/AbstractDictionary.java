@@ -0,0 +1,1002 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Search algorithms shared by all dictionary representations. Subclasses only
+ * describe how states are stored, state 0 is always the root.
+ *
+ * @author hedge
+ */
+public abstract class AbstractDictionary implements ISearch {
+    protected volatile long[] counts;
+    protected volatile long[] weights;
+    protected long[] outputs;
+    protected boolean reversed;
+    protected boolean weighted;
+    protected IMetricsListener listener;
+    private volatile Ranks ranks;
+    
+    @Override
+    public boolean contains(String value) {
+        int state = getEntryState(value);
+        
+        if (state > -1) {
+            return isFinal(state);
+        } else {
+            return false;
+        }
+    }
+    
+    @Override
+    public List<String> listSuffixes(String prefix) {
+        int state = getWordLastState(prefix);
+        
+        if (state > -1) {
+            Collector collector = new Collector();
+            traverse(state, collector);
+            return collector.values;            
+        } else {
+            return Collections.EMPTY_LIST;
+        }
+    }
+    
+    @Override
+    public void listSuffixes(String prefix, ICollector collector) {
+        int state = getWordLastState(prefix);
+        
+        if (state > -1) {
+            traverse(state, collector);
+        }
+    }
+    
+    @Override
+    public void listSuffixes(String prefix, ICharCollector collector) {
+        int state = getWordLastState(prefix);
+        
+        if (state > -1) {
+            traverse(state, collector);
+        }
+    }
+    
+    @Override
+    public List<String> listSuffixes(String prefix, int limit) {
+        List<String> values = new ArrayList<>();
+        int state = getWordLastState(prefix);
+        
+        if (state > -1) {
+            Traversal traversal = new Traversal(this, state);
+            
+            while (values.size() < limit && traversal.next()) {
+                values.add(new String(traversal.buffer(), 0, traversal.length()));
+            }
+            
+            traversal.report();
+        }
+        
+        return values;
+    }
+    
+    @Override
+    public Iterator<String> iterateSuffixes(String prefix) {
+        return new SuffixIterator(getWordLastState(prefix));
+    }
+    
+    /**
+     * Reports every entry which occurs in the text, empty entry is never
+     * reported. A char array can be scanned without copying through
+     * CharBuffer.wrap(array) and the start and end offsets.
+     */
+    public void findAll(CharSequence text, ISpanCollector collector) {
+        findAll(text, 0, text.length(), collector);
+    }
+    
+    public void findAll(CharSequence text, int start, int end, ISpanCollector collector) {
+        for (int i = start; i < end; i++) {
+            int state = 0;
+            int j = i;
+            
+            while (j < end) {
+                state = getTransition(state, text.charAt(j));
+                
+                if (state == -1) {
+                    break;
+                }
+                
+                j++;
+                
+                if (isFinal(state)) {
+                    collector.collect(i, j);
+                }
+            }
+            
+            if (listener != null) {
+                listener.lookup(j - i);
+            }
+        }
+    }
+    
+    /**
+     * Reports the longest entry starting at each position of the text.
+     */
+    public void findLongest(CharSequence text, ISpanCollector collector) {
+        findLongest(text, 0, text.length(), collector);
+    }
+    
+    public void findLongest(CharSequence text, int start, int end, ISpanCollector collector) {
+        for (int i = start; i < end; i++) {
+            int match = longestMatch(text, i, end);
+            
+            if (match != -1) {
+                collector.collect(i, match);
+            }
+        }
+    }
+    
+    /**
+     * @return end offset of the longest non-empty entry starting at given
+     * position or -1 if there is none
+     */
+    public int longestMatch(CharSequence text, int start) {
+        return longestMatch(text, start, text.length());
+    }
+    
+    public int longestMatch(CharSequence text, int start, int end) {
+        int state = 0;
+        int match = -1;
+        int j = start;
+        
+        while (j < end) {
+            state = getTransition(state, text.charAt(j));
+            
+            if (state == -1) {
+                break;
+            }
+            
+            j++;
+            
+            if (isFinal(state)) {
+                match = j;
+            }
+        }
+        
+        if (listener != null) {
+            listener.lookup(j - start);
+        }
+        
+        return match;
+    }
+    
+    /**
+     * @return value carried by the entry, zero for entries added without one,
+     * or defaultValue if the entry is not present
+     */
+    public long get(String value, long defaultValue) {
+        int state = getEntryState(value);
+        
+        if (state > -1 && isFinal(state)) {
+            return output(state);
+        } else {
+            return defaultValue;
+        }
+    }
+    
+    /**
+     * @return true if entries carry values
+     */
+    public boolean hasValues() {
+        return outputs != null;
+    }
+    
+    /**
+     * @return true if values of entries are their weights, see
+     * Automaton.add(String, int)
+     */
+    public boolean isWeighted() {
+        return weighted;
+    }
+    
+    /**
+     * Reversed dictionary keeps entries spelled backwards, so that they can
+     * be looked up by their endings. contains, get and listBySuffix take
+     * entries as they are, other queries see the backward spelling.
+     */
+    public boolean isReversed() {
+        return reversed;
+    }
+    
+    /**
+     * Walks a reversed dictionary from the end of the word, no reversed copy
+     * of the word is made.
+     * 
+     * @return length of the longest ending of the word shared with some entry
+     */
+    public int longestSuffixMatch(String word) {
+        checkReversed();
+        int state = 0;
+        int length = 0;
+        
+        while (length < word.length()) {
+            state = getTransition(state, word.charAt(word.length() - 1 - length));
+            
+            if (state == -1) {
+                break;
+            }
+            
+            length++;
+        }
+        
+        if (listener != null) {
+            listener.lookup(length);
+        }
+        
+        return length;
+    }
+    
+    /**
+     * @return entries of a reversed dictionary ending with given suffix,
+     * ordered by their backward spelling
+     */
+    public List<String> listBySuffix(String suffix) {
+        Collector collector = new Collector();
+        listBySuffix(suffix, collector);
+        return collector.values;
+    }
+    
+    public void listBySuffix(final String suffix, final ICollector collector) {
+        checkReversed();
+        int state = getReversedLastState(suffix);
+        
+        if (state > -1) {
+            traverse(state, new ICharCollector() {
+                private char[] word = new char[16];
+                
+                @Override
+                public void collect(char[] buffer, int length) {
+                    if (word.length < length + suffix.length()) {
+                        word = new char[Math.max(word.length * 2, length + suffix.length())];
+                    }
+                    
+                    for (int i = 0; i < length; i++) {
+                        word[i] = buffer[length - 1 - i];
+                    }
+                    
+                    suffix.getChars(0, suffix.length(), word, length);
+                    collector.collect(new String(word, 0, length + suffix.length()));
+                }
+            });
+        }
+    }
+    
+    /**
+     * Perfect hash of an entry. Every step adds the entries in front of the
+     * transition taken, which are looked up in a table built on first use.
+     * 
+     * @return position of the value among all entries in lexicographic order
+     * or -1 if it is not present
+     */
+    public long indexOf(String value) {
+        Ranks ranks = ranks();
+        int state = 0;
+        long index = 0;
+        
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            int j = lowerBound(state, c);
+            
+            if (j == transitionCount(state) || getKey(state, j) != c) {
+                if (listener != null) {
+                    listener.lookup(i);
+                }
+                
+                return -1;
+            }
+            
+            index += ranks.before[ranks.starts[state] + j];
+            state = getTarget(state, j);
+        }
+        
+        if (listener != null) {
+            listener.lookup(value.length());
+        }
+        
+        return isFinal(state) ? index : -1;
+    }
+    
+    /**
+     * Inverse of indexOf.
+     * 
+     * @return entry at given position in lexicographic order
+     */
+    public String wordAt(long index) {
+        Ranks ranks = ranks();
+        long size = ranks.counts[0];
+        
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        
+        StringBuilder builder = new StringBuilder();
+        int state = 0;
+        
+        while (!isFinal(state) || index > 0) {
+            // Last transition with no more entries in front of it than the index
+            int from = ranks.starts[state];
+            int low = from;
+            int high = ranks.starts[state + 1] - 1;
+            
+            while (low < high) {
+                int middle = (low + high + 1) >>> 1;
+                
+                if (ranks.before[middle] <= index) {
+                    low = middle;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            
+            index -= ranks.before[low];
+            builder.append(getKey(state, low - from));
+            state = getTarget(state, low - from);
+        }
+        
+        if (listener != null) {
+            listener.lookup(builder.length());
+        }
+        
+        return builder.toString();
+    }
+    
+    /**
+     * @return number of entries in the dictionary
+     */
+    public long wordCount() {
+        return counts()[0];
+    }
+    
+    @Override
+    public void contains(String[] values, boolean[] result) {
+        if (reversed) {
+            for (int i = 0; i < values.length; i++) {
+                result[i] = contains(values[i]);
+            }
+            
+            return;
+        }
+        
+        int[] last = getWordLastStates(values);
+        
+        for (int i = 0; i < values.length; i++) {
+            result[i] = last[i] > -1 && isFinal(last[i]);
+        }
+    }
+    
+    @Override
+    public List<List<String>> listSuffixes(String[] prefixes) {
+        int[] last = getWordLastStates(prefixes);
+        List<List<String>> result = new ArrayList<>(prefixes.length);
+        
+        for (int i = 0; i < prefixes.length; i++) {
+            Collector collector = new Collector();
+            
+            if (last[i] > -1) {
+                traverse(last[i], collector);
+            }
+            
+            result.add(collector.values);
+        }
+        
+        return result;
+    }
+    
+    @Override
+    public Map<String, Integer> fuzzySearch(String query, int maxEdits) {
+        final Map<String, Integer> result = new LinkedHashMap<>();
+        
+        fuzzySearch(query, maxEdits, new IFuzzyCollector() {
+            @Override
+            public void collect(String value, int distance) {
+                result.put(value, distance);
+            }
+        });
+        
+        return result;
+    }
+    
+    @Override
+    public void fuzzySearch(String query, int maxEdits, IFuzzyCollector collector) {
+        if (maxEdits < 0) {
+            throw new IllegalArgumentException("Negative maxEdits: " + maxEdits);
+        }
+        
+        new FuzzySearch(this, query, maxEdits, collector).search();
+    }
+    
+    @Override
+    public List<String> listMatches(String pattern) {
+        Collector collector = new Collector();
+        listMatches(pattern, collector);
+        return collector.values;
+    }
+    
+    @Override
+    public void listMatches(String pattern, ICollector collector) {
+        WildcardPattern.compile(pattern).search(this, collector);
+    }
+    
+    @Override
+    public List<String> topK(String prefix, int k) {
+        Collector collector = new Collector();
+        topK(prefix, k, collector);
+        return collector.values;
+    }
+    
+    @Override
+    public void topK(String prefix, int k, ICollector collector) {
+        if (hasValues() && !weighted) {
+            throw new IllegalStateException("Values of the entries are not weights");
+        }
+        
+        int state = getWordLastState(prefix);
+        
+        if (state > -1 && k > 0) {
+            new TopKSearch(this).search(state, prefix, k, collector);
+        }
+    }
+    
+    /**
+     * @return cursor at the root, moved one character at a time
+     */
+    public DictCursor cursor() {
+        return new DictCursor(this);
+    }
+    
+    public abstract int stateCount();
+    
+    /**
+     * Attaches a listener receiving build and query events, null detaches it.
+     * Nothing is reported and counted without a listener.
+     */
+    public void setListener(IMetricsListener listener) {
+        this.listener = listener;
+    }
+    
+    public IMetricsListener getListener() {
+        return listener;
+    }
+    
+    /**
+     * @return index of the first transition of the state whose key is not
+     * less than given key, transition count if there is none
+     */
+    protected int lowerBound(int state, char key) {
+        int low = 0;
+        int high = transitionCount(state);
+        
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            
+            if (getKey(state, middle) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        
+        return low;
+    }
+    
+    /**
+     * @return state of the entry as it is stored, spelled backwards in a
+     * reversed dictionary, or -1 if there is none
+     */
+    protected int getEntryState(String value) {
+        return reversed ? getReversedLastState(value) : getWordLastState(value);
+    }
+    
+    /**
+     * @return state reached by the value read from its end or -1 if there is none
+     */
+    protected int getReversedLastState(String value) {
+        int state = 0;
+        
+        int i = value.length() - 1;
+        
+        for (; i >= 0 && state != -1; i--) {
+            state = getTransition(state, value.charAt(i));
+        }
+        
+        if (listener != null) {
+            listener.lookup(value.length() - 1 - i);
+        }
+        
+        return state;
+    }
+    
+    private void checkReversed() {
+        if (!reversed) {
+            throw new IllegalStateException("Suffix lookups need a reversed dictionary");
+        }
+    }
+    
+    /**
+     * @return state reached by the whole value or -1 if there is none
+     */
+    protected int getWordLastState(String value) {
+        int state = 0;
+        int i = 0;
+        
+        for (; i < value.length() && state != -1; i++) {
+            state = getTransition(state, value.charAt(i));
+        }
+        
+        if (listener != null) {
+            listener.lookup(i);
+        }
+        
+        return state;
+    }
+    
+    /**
+     * Finds states reached by each of the values. Values are visited in
+     * sorted order, so that each walk continues from the longest prefix it
+     * shares with the previous one instead of starting from the root.
+     * 
+     * @return state reached by the value with the same index or -1
+     */
+    protected int[] getWordLastStates(String[] values) {
+        int[] order = new int[values.length];
+        
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        
+        sortIndices(values, order, new int[order.length], 0, order.length);
+        
+        int[] result = new int[values.length];
+        int[] path = new int[16];
+        int depth = 0;
+        String previous = "";
+        
+        for (int index : order) {
+            String value = values[index];
+            int start;
+            int common = 0;
+            
+            while (common < depth && common < value.length() && value.charAt(common) == previous.charAt(common)) {
+                common++;
+            }
+            
+            if (path.length <= value.length()) {
+                path = Arrays.copyOf(path, Math.max(value.length() + 1, path.length * 2));
+            }
+            
+            int state = path[common];
+            depth = common;
+            start = common;
+            
+            while (depth < value.length()) {
+                state = getTransition(state, value.charAt(depth));
+                
+                if (state == -1) {
+                    break;
+                }
+                
+                path[++depth] = state;
+            }
+            
+            result[index] = state;
+            previous = value;
+            
+            // Shared transitions are counted once, for the value which followed them first
+            if (listener != null) {
+                listener.lookup(depth - start + (state == -1 ? 1 : 0));
+            }
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Merge sort of order[from..to] by the values the indices point to,
+     * using buffer of the same length.
+     */
+    private static void sortIndices(String[] values, int[] order, int[] buffer, int from, int to) {
+        if (to - from < 16) {
+            for (int i = from + 1; i < to; i++) {
+                int index = order[i];
+                int j = i;
+                
+                for (; j > from && values[order[j - 1]].compareTo(values[index]) > 0; j--) {
+                    order[j] = order[j - 1];
+                }
+                
+                order[j] = index;
+            }
+            
+            return;
+        }
+        
+        int middle = (from + to) >>> 1;
+        sortIndices(values, order, buffer, from, middle);
+        sortIndices(values, order, buffer, middle, to);
+        
+        if (values[order[middle - 1]].compareTo(values[order[middle]]) <= 0) {
+            return;
+        }
+        
+        System.arraycopy(order, from, buffer, from, to - from);
+        
+        for (int i = from, left = from, right = middle; i < to; i++) {
+            if (right == to || left < middle && values[buffer[left]].compareTo(values[buffer[right]]) <= 0) {
+                order[i] = buffer[left++];
+            } else {
+                order[i] = buffer[right++];
+            }
+        }
+    }
+    
+    protected void traverse(int state, ICollector collector) {
+        Traversal traversal = new Traversal(this, state);
+        
+        while (traversal.next()) {
+            collector.collect(new String(traversal.buffer(), 0, traversal.length()));
+        }
+        
+        traversal.report();
+    }
+    
+    protected void traverse(int state, ICharCollector collector) {
+        Traversal traversal = new Traversal(this, state);
+        
+        while (traversal.next()) {
+            collector.collect(traversal.buffer(), traversal.length());
+        }
+        
+        traversal.report();
+    }
+    
+    /**
+     * @return states reachable from the root in depth-first preorder, so
+     * that states of a lookup path mostly follow each other
+     */
+    protected int[] depthFirstOrder() {
+        int stateCount = stateCount();
+        int[] order = new int[stateCount];
+        int[] stack = new int[stateCount];
+        int[] edges = new int[stateCount];
+        BitSet visited = new BitSet(stateCount);
+        int count = 1;
+        int size = 1;
+        visited.set(0);
+        
+        while (size > 0) {
+            int state = stack[size - 1];
+            
+            if (edges[size - 1] < transitionCount(state)) {
+                int target = getTarget(state, edges[size - 1]++);
+                
+                if (!visited.get(target)) {
+                    visited.set(target);
+                    order[count++] = target;
+                    stack[size] = target;
+                    edges[size++] = 0;
+                }
+            } else {
+                size--;
+            }
+        }
+        
+        return Arrays.copyOf(order, count);
+    }
+    
+    /**
+     * @return number of transitions of the states reachable from the root
+     */
+    int reachableTransitions() {
+        int total = 0;
+        
+        for (int state : depthFirstOrder()) {
+            total += transitionCount(state);
+        }
+        
+        return total;
+    }
+    
+    protected int getCommonPrefix(char[] word, int[] stateList) {
+        stateList[0] = 0;
+        int current = 0;
+        
+        for (int i = 0; i < word.length; i++) {
+            int next = getTransition(current, word[i]);
+            
+            if (next == -1) {
+                return i + 1;
+            }
+            
+            stateList[i + 1] = next;
+            current = next;
+            
+        }
+        
+        return stateList.length;
+    }
+    
+    /**
+     * @return number of entries reachable from every state, computed on
+     * first use unless it was loaded together with the states
+     */
+    protected long[] counts() {
+        long[] result = counts;
+        
+        if (result == null) {
+            result = countWords();
+            counts = result;
+        }
+        
+        return result;
+    }
+    
+    private long[] countWords() {
+        long[] result = new long[stateCount()];
+        
+        for (int state : postOrder()) {
+            long count = isFinal(state) ? 1 : 0;
+            
+            for (int i = 0; i < transitionCount(state); i++) {
+                count += result[getTarget(state, i)];
+            }
+            
+            result[state] = count;
+        }
+        
+        return result;
+    }
+    
+    /**
+     * @return greatest value of an entry reachable from every state,
+     * computed on first use unless it was loaded together with the states
+     */
+    protected long[] weights() {
+        long[] result = weights;
+        
+        if (result == null) {
+            result = maxWeights();
+            weights = result;
+        }
+        
+        return result;
+    }
+    
+    private long[] maxWeights() {
+        long[] result = new long[stateCount()];
+        
+        for (int state : postOrder()) {
+            long weight = isFinal(state) ? output(state) : Long.MIN_VALUE;
+            
+            for (int i = 0; i < transitionCount(state); i++) {
+                weight = Math.max(weight, result[getTarget(state, i)]);
+            }
+            
+            result[state] = weight;
+        }
+        
+        return result;
+    }
+    
+    /**
+     * @return states reachable from the root, every state after all its targets
+     */
+    private int[] postOrder() {
+        int[] order = new int[stateCount()];
+        boolean[] visited = new boolean[order.length];
+        int[] stack = new int[16];
+        int count = 0;
+        int size = 0;
+        
+        stack[size++] = 0;
+        
+        // A state may be pushed twice, it is taken when all its targets are
+        while (size > 0) {
+            int state = stack[size - 1];
+            
+            if (visited[state]) {
+                size--;
+                continue;
+            }
+            
+            boolean ready = true;
+            
+            for (int i = 0; i < transitionCount(state); i++) {
+                int target = getTarget(state, i);
+                
+                if (!visited[target]) {
+                    if (size == stack.length) {
+                        stack = Arrays.copyOf(stack, size * 2);
+                    }
+                    
+                    stack[size++] = target;
+                    ready = false;
+                }
+            }
+            
+            if (ready) {
+                order[count++] = state;
+                visited[state] = true;
+                size--;
+            }
+        }
+        
+        return Arrays.copyOf(order, count);
+    }
+    
+    protected long output(int state) {
+        return outputs == null ? 0 : outputs[state];
+    }
+    
+    protected abstract int getTransition(int state, char value);
+    
+    protected abstract boolean isFinal(int state);
+    
+    protected abstract int transitionCount(int state);
+    
+    /**
+     * @return key of the transition with given index, keys of a state are sorted
+     */
+    protected abstract char getKey(int state, int index);
+    
+    /**
+     * @return target state of the transition with given index
+     */
+    protected abstract int getTarget(int state, int index);
+    
+    /**
+     * Resumes the traversal on every call to next, so entries are produced
+     * only when asked for. The traversal is reported to the listener when
+     * the iterator is exhausted or closed, whichever comes first.
+     */
+    protected class SuffixIterator implements Iterator<String>, Closeable {
+        private final Traversal traversal;
+        private boolean ready;
+        private boolean finished;
+        
+        /**
+         * @param state start state, -1 for an empty iterator
+         */
+        public SuffixIterator(int state) {
+            this.traversal = state > -1 ? new Traversal(AbstractDictionary.this, state) : null;
+            this.ready = false;
+            this.finished = state == -1;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            if (!ready && !finished) {
+                ready = traversal.next();
+                
+                if (!ready) {
+                    close();
+                }
+            }
+            
+            return ready;
+        }
+        
+        /**
+         * Ends the iteration and reports the part walked so far.
+         */
+        @Override
+        public void close() {
+            if (!finished) {
+                finished = true;
+                ready = false;
+                traversal.report();
+            }
+        }
+        
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            
+            ready = false;
+            return new String(traversal.buffer(), 0, traversal.length());
+        }
+        
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+    
+    /**
+     * @return entries in front of every transition, rebuilt whenever the
+     * word counts are replaced
+     */
+    private Ranks ranks() {
+        long[] words = counts();
+        Ranks result = ranks;
+        
+        if (result == null || result.counts != words) {
+            result = new Ranks(this, words);
+            ranks = result;
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Transitions of all states laid out one after another. For every
+     * transition it keeps the number of entries in front of its target among
+     * the entries below its state, the state itself included.
+     */
+    private static final class Ranks {
+        private final long[] counts;
+        private final int[] starts;
+        private final long[] before;
+        
+        Ranks(AbstractDictionary dictionary, long[] counts) {
+            int stateCount = dictionary.stateCount();
+            this.counts = counts;
+            this.starts = new int[stateCount + 1];
+            
+            for (int state = 0; state < stateCount; state++) {
+                starts[state + 1] = starts[state] + dictionary.transitionCount(state);
+            }
+            
+            this.before = new long[starts[stateCount]];
+            
+            for (int state = 0; state < stateCount; state++) {
+                long entries = dictionary.isFinal(state) ? 1 : 0;
+                
+                for (int i = 0; i < dictionary.transitionCount(state); i++) {
+                    before[starts[state] + i] = entries;
+                    entries += counts[dictionary.getTarget(state, i)];
+                }
+            }
+        }
+    }
+    
+    protected class Collector implements ICollector {
+        List<String> values = new ArrayList<>();
+        
+        @Override
+        public void collect(String value) {
+            values.add(value);
+        }
+    }
+    
+}
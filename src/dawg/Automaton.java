@@ -1,260 +1,878 @@
-/*
- * The MIT License
- *
- * Copyright 2020 hedgeonline.
- *
- * Permission is hereby granted, free of charge, to any person obtaining a copy
- * of this software and associated documentation files (the "Software"), to deal
- * in the Software without restriction, including without limitation the rights
- * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
- * copies of the Software, and to permit persons to whom the Software is
- * furnished to do so, subject to the following conditions:
- *
- * The above copyright notice and this permission notice shall be included in
- * all copies or substantial portions of the Software.
- *
- * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
- * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
- * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
- * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
- * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
- * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
- * THE SOFTWARE.
- */
-package dawg;
-
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.util.ArrayList;
-import java.util.List;
-
-/**
- *
- * @author Андрей
- */
-public class Automaton extends Dictionary<AutoState> {
-    private final Register register;
-    
-    public Automaton() {
-        super(new ArrayList<AutoState>());
-        
-        register = new Register();
-        states.add(new AutoState('\0', false));
-    }
-    
-    protected Automaton(List<AutoState> states, Register register) {
-        super(states);
-        this.register = register;
-    }
-    
-    public void add(String value) {
-        char[] word = value.toCharArray();
-        int[] stateList = new int[word.length + 1];
-        int common = getCommonPrefix(word, stateList);
-        cloneIfConfluence(word, stateList, common);
-        addSuffix(word, stateList, common);
-        replaceOrRegister(word, stateList);
-    }
-    
-    protected void cloneIfConfluence(char[] word, int[] stateList, int common) {
-        int confIdx = findConfluence(stateList);
-        
-        if (confIdx > -1) {            
-            register.remove(stateList[confIdx - 1]);
-        
-            for (int i = confIdx; i < common; i++) {
-                int cloned = cloneState(stateList[i]);
-                stateList[i] = cloned;
-                setTransition(stateList[i - 1], word[i - 1], cloned);
-            }
-        }
-    }
-    
-    protected int cloneState(int state) {
-        int clone = newState(states.get(state).value());
-        
-        AutoState initialState = states.get(state);
-        AutoState clonedState = states.get(clone);
-        
-        for (int i = 0; i < initialState.transitionCount(); i++) {
-            char key = initialState.key(i);
-            clonedState.setTransition(key, initialState.transition(key));
-            
-            if (clonedState.transition(key) != -1) {
-                states.get(clonedState.transition(key)).incrementInbound();
-            }
-        }
-
-        states.get(clone).setTerminal(states.get(state).isTerminal());
-        
-        return clone;
-    }
-    
-    protected void replaceOrRegister(char[] word, int[] stateList) {        
-        for (int i = stateList.length - 1; i > 0; i--) {
-            int registered = register.get(stateList[i], states.get(stateList[i]));
-            
-            if (registered == -1) {
-                register.add(stateList[i], states.get(stateList[i]));
-            } else if (registered != stateList[i]) {
-                register.remove(stateList[i - 1]);
-                setTransition(stateList[i - 1], word[i - 1], registered);
-                remove(stateList[i]);  
-                register.discard(stateList[i]);
-                stateList[i] = registered;
-            }            
-        }
-    }
-    
-    protected void remove(int state) {
-        AutoState wrapper = states.get(state);
-        
-        for (int i = 0; i < wrapper.transitionCount(); i++) {
-            if (wrapper.transition(wrapper.key(i)) != -1) {
-                states.get(wrapper.transition(wrapper.key(i))).dencrementInbound();
-            }
-        }
-    }
-    
-    protected void addSuffix(char[] word, int[] stateList, int prefixSize) {
-        register.remove(stateList[prefixSize - 1]);
-        
-        for (int i = prefixSize - 1; i < word.length; i++) {
-            stateList[i + 1] = newState(word[i]);
-            setTransition(stateList[i], word[i], stateList[i + 1]);
-        }
-        
-        register.remove(stateList[stateList.length - 1]);
-        setFinal(stateList[stateList.length - 1]);        
-    }
-    
-    protected int newState(char value) {
-        Integer index = register.nextDiscarded();
-        
-        if (index == null) {
-            index = add(new AutoState(value, false));
-        } else {
-            set(index, new AutoState(value, false));
-        }
-        
-        return index;
-    }
-    
-    protected void setFinal(int state) {
-        states.get(state).setTerminal(true);
-    }
-    
-    protected void setTransition(int state, char value, int target) {
-        int old = states.get(state).transition(value);
-        
-        if (old != -1) {
-            decrementInbounds(old);
-        }
-        
-        incrementInbounds(target);
-        states.get(state).setTransition(value, target);
-    }
-    
-    private void incrementInbounds(int state) {
-        states.get(state).incrementInbound();
-    }
-    
-    private void decrementInbounds(int state) {
-        states.get(state).dencrementInbound();
-    }
-    
-    protected int add(AutoState wrapper) {
-        int index = states.size();
-        
-        states.add(wrapper);
-        
-        return index;
-    }
-    
-    protected void set(int state, AutoState wrapper) {
-        states.set(state, wrapper);
-    }
-    
-    protected int findConfluence(int[] stateList) {        
-        for (int i = 0; i < stateList.length; i++) {
-            if (states.get(stateList[i]).inboundCount() > 1) {
-                return i;
-            }
-        }
-        
-        return -1;
-    }
-    
-    public void save(OutputStream stream, boolean editable) throws IOException {
-        DataOutputStream output = new DataOutputStream(stream);
-        output.writeBoolean(editable);
-        output.writeInt(stateCount());
-        
-        for (AutoState wrapper : states) {            
-            output.writeBoolean(wrapper.isTerminal());
-            output.writeShort(wrapper.transitionCount());
-            
-            if (editable) {
-                output.writeShort(wrapper.inboundCount());
-                output.writeChar(wrapper.value());
-            }
-
-            for (int i = 0; i < wrapper.transitionCount(); i++) {
-                output.writeChar(wrapper.key(i));
-                output.writeInt(wrapper.transition(wrapper.key(i)));
-            }
-        }
-
-        output.flush();
-    }
-    
-    public int discardedCount() {
-        return register.discardedStatesCount();
-    }
-    
-    public static Automaton load(InputStream stream) throws IOException {        
-        DataInputStream input = new DataInputStream(stream);
-        List<AutoState> states = new ArrayList<>();
-        Register register = new Register();
-        
-        boolean editable = input.readBoolean();
-        
-        if (!editable) {
-            throw new IOException("Trying to load Automaton from read-only binary format");
-        }
-        
-        int expected = input.readInt();
-        
-        while (states.size() < expected) {
-            int index = states.size();
-            boolean isTerminal = input.readBoolean();
-            short outCount = input.readShort();
-            short inCount = input.readShort();
-            char value = input.readChar();            
-            
-            char[] keyArray = new char[outCount];
-            int[] transitionArray = new int[outCount];            
-            
-            while (outCount > 0) {
-                keyArray[keyArray.length - outCount] = input.readChar();               
-                transitionArray[transitionArray.length - outCount] = input.readInt();
-                outCount--;
-            }
-            
-            AutoState state = new AutoState(value, isTerminal, inCount, keyArray, transitionArray);
-            
-            states.add(state);
-            register.get(index, state);
-            
-            if (index > 0 && inCount == 0) {
-                register.discard(index);
-            }
-        }
-        
-        return new Automaton(states, register);
-    }
-    
-}
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *
+ * @author Андрей
+ */
+public class Automaton extends Dictionary<AutoState> {
+    private final Register register;
+    private boolean numbered;
+    private boolean valued;
+    private int epoch;
+    
+    public Automaton() {
+        super(new StateList());
+        
+        register = new Register(states);
+        states.add(new AutoState('\0', false));
+    }
+    
+    /**
+     * Reversed automaton stores entries spelled backwards, see
+     * AbstractDictionary.isReversed. The flag is kept when saving.
+     */
+    public Automaton(boolean reversed) {
+        this();
+        this.reversed = reversed;
+    }
+    
+    protected Automaton(List<AutoState> states, Register register) {
+        super(states);
+        this.register = register;
+    }
+    
+    public void add(String value) {
+        insert(chars(value), false, 0);
+    }
+    
+    /**
+     * Adds the key carrying given value, value of an existing key is
+     * replaced. Keys added without a value carry zero.
+     * 
+     * @throws IllegalStateException if the automaton is weighted
+     */
+    public void put(String key, long value) {
+        if (weighted) {
+            throw new IllegalStateException("Weighted automaton takes weights through add");
+        }
+        
+        valued = true;
+        insert(chars(key), true, value);
+    }
+    
+    /**
+     * Adds the key carrying its weight, which topK ranks entries by and get
+     * returns. Weights take the place of values, the automaton becomes
+     * weighted, see setWeighted.
+     * 
+     * @throws IllegalStateException if the automaton carries values
+     */
+    public void add(String value, int weight) {
+        if (valued && !weighted) {
+            throw new IllegalStateException("Automaton carries values, weights would replace them");
+        }
+        
+        weighted = true;
+        valued = true;
+        insert(chars(value), true, weight);
+    }
+    
+    /**
+     * Removes the entry. States shared with other entries are cloned first,
+     * states no longer leading to any entry are discarded and the rest of
+     * the path is minimized again, so the automaton stays minimal.
+     * 
+     * @return false if there was no such entry
+     */
+    public boolean remove(String value) {
+        char[] word = chars(value);
+        int[] stateList = new int[word.length + 1];
+        
+        if (getCommonPrefix(word, stateList) < stateList.length || !states.get(stateList[word.length]).isTerminal()) {
+            return false;
+        }
+        
+        counts = null;
+        weights = null;
+        cloneIfConfluence(word, stateList, stateList.length);
+        
+        int last = word.length;
+        register.remove(stateList[last]);
+        writable(stateList[last]).setTerminal(false);
+        writable(stateList[last]).setOutput(0);
+        
+        while (last > 0 && !states.get(stateList[last]).isTerminal() && states.get(stateList[last]).transitionCount() == 0) {
+            register.remove(stateList[last - 1]);
+            removeTransition(stateList[last - 1], word[last - 1]);
+            register.discard(stateList[last]);
+            
+            if (listener != null) {
+                listener.stateDiscarded();
+            }
+            
+            last--;
+        }
+        
+        replaceOrRegister(word, Arrays.copyOf(stateList, last + 1));
+        
+        return true;
+    }
+    
+    private char[] chars(String value) {
+        char[] word = value.toCharArray();
+        
+        if (reversed) {
+            for (int i = 0, j = word.length - 1; i < j; i++, j--) {
+                char c = word[i];
+                word[i] = word[j];
+                word[j] = c;
+            }
+        }
+        
+        return word;
+    }
+    
+    private void insert(char[] word, boolean hasOutput, long output) {
+        counts = null;
+        weights = null;
+        int[] stateList = new int[word.length + 1];
+        int common = getCommonPrefix(word, stateList);
+        cloneIfConfluence(word, stateList, common);
+        addSuffix(word, stateList, common);
+        
+        if (hasOutput) {
+            writable(stateList[word.length]).setOutput(output);
+        }
+        
+        replaceOrRegister(word, stateList);
+    }
+    
+    protected void cloneIfConfluence(char[] word, int[] stateList, int common) {
+        int confIdx = findConfluence(stateList);
+        
+        if (confIdx > -1) {            
+            register.remove(stateList[confIdx - 1]);
+        
+            for (int i = confIdx; i < common; i++) {
+                int cloned = cloneState(stateList[i]);
+                stateList[i] = cloned;
+                setTransition(stateList[i - 1], word[i - 1], cloned);
+            }
+            
+            if (listener != null) {
+                listener.statesCloned(common - confIdx);
+            }
+        }
+    }
+    
+    protected int cloneState(int state) {
+        int clone = newState(states.get(state).value());
+        
+        AutoState initialState = states.get(state);
+        AutoState clonedState = states.get(clone);
+        
+        for (int i = 0; i < initialState.transitionCount(); i++) {
+            char key = initialState.key(i);
+            clonedState.setTransition(key, initialState.transition(key));
+            
+            if (clonedState.transition(key) != -1) {
+                states.get(clonedState.transition(key)).incrementInbound();
+            }
+        }
+
+        states.get(clone).setTerminal(states.get(state).isTerminal());
+        states.get(clone).setOutput(states.get(state).output());
+        
+        if (listener != null) {
+            listener.transitionsAdded(initialState.transitionCount());
+        }
+        
+        return clone;
+    }
+    
+    protected void replaceOrRegister(char[] word, int[] stateList) {        
+        for (int i = stateList.length - 1; i > 0; i--) {
+            int registered = register.get(stateList[i], states.get(stateList[i]));
+            
+            if (registered == -1) {
+                register.add(stateList[i], states.get(stateList[i]));
+                
+                if (listener != null) {
+                    listener.registerMiss();
+                }
+            } else if (registered != stateList[i]) {
+                register.remove(stateList[i - 1]);
+                setTransition(stateList[i - 1], word[i - 1], registered);
+                remove(stateList[i]);  
+                register.discard(stateList[i]);
+                stateList[i] = registered;
+                
+                if (listener != null) {
+                    listener.registerHit();
+                    listener.stateDiscarded();
+                }
+            }            
+        }
+    }
+    
+    protected void remove(int state) {
+        AutoState wrapper = states.get(state);
+        
+        for (int i = 0; i < wrapper.transitionCount(); i++) {
+            if (wrapper.transition(wrapper.key(i)) != -1) {
+                states.get(wrapper.transition(wrapper.key(i))).dencrementInbound();
+            }
+        }
+        
+        if (listener != null) {
+            listener.transitionsAdded(-wrapper.transitionCount());
+        }
+    }
+    
+    protected void addSuffix(char[] word, int[] stateList, int prefixSize) {
+        register.remove(stateList[prefixSize - 1]);
+        
+        for (int i = prefixSize - 1; i < word.length; i++) {
+            stateList[i + 1] = newState(word[i]);
+            setTransition(stateList[i], word[i], stateList[i + 1]);
+        }
+        
+        register.remove(stateList[stateList.length - 1]);
+        setFinal(stateList[stateList.length - 1]);        
+    }
+    
+    protected int newState(char value) {
+        int index = register.nextDiscarded();
+        AutoState wrapper = new AutoState(value, false);
+        wrapper.epoch = epoch;
+        
+        if (index == -1) {
+            index = add(wrapper);
+        } else {
+            set(index, wrapper);
+            
+            if (listener != null) {
+                listener.stateReused();
+            }
+        }
+        
+        return index;
+    }
+    
+    protected void setFinal(int state) {
+        writable(state).setTerminal(true);
+    }
+    
+    protected void setTransition(int state, char value, int target) {
+        int old = states.get(state).transition(value);
+        
+        if (old != -1) {
+            decrementInbounds(old);
+        } else if (listener != null) {
+            listener.transitionsAdded(1);
+        }
+        
+        incrementInbounds(target);
+        writable(state).setTransition(value, target);
+    }
+    
+    protected void removeTransition(int state, char value) {
+        int old = states.get(state).transition(value);
+        
+        if (old != -1) {
+            decrementInbounds(old);
+            writable(state).removeTransition(value);
+            
+            if (listener != null) {
+                listener.transitionsAdded(-1);
+            }
+        }
+    }
+    
+    /**
+     * @return state which can be modified, copied first if it was created
+     * before the last snapshot and so may be shared with it
+     */
+    private AutoState writable(int state) {
+        AutoState wrapper = states.get(state);
+        
+        if (wrapper.epoch != epoch) {
+            wrapper = wrapper.copy(epoch);
+            states.set(state, wrapper);
+        }
+        
+        return wrapper;
+    }
+    
+    // Inbound counts are changed in place even in shared states, snapshots never read them
+    private void incrementInbounds(int state) {
+        states.get(state).incrementInbound();
+    }
+    
+    private void decrementInbounds(int state) {
+        states.get(state).dencrementInbound();
+    }
+    
+    protected int add(AutoState wrapper) {
+        int index = states.size();
+        
+        states.add(wrapper);
+        
+        return index;
+    }
+    
+    protected void set(int state, AutoState wrapper) {
+        states.set(state, wrapper);
+    }
+    
+    protected int findConfluence(int[] stateList) {        
+        for (int i = 0; i < stateList.length; i++) {
+            if (states.get(stateList[i]).inboundCount() > 1) {
+                return i;
+            }
+        }
+        
+        return -1;
+    }
+    
+    /**
+     * Numbered automaton also saves word counts of all states, so that
+     * indexOf and wordAt of a loaded dictionary need no preparation.
+     */
+    public void setNumbered(boolean numbered) {
+        this.numbered = numbered;
+    }
+    
+    public boolean isNumbered() {
+        return numbered;
+    }
+    
+    /**
+     * Values of a weighted automaton are weights. It also saves the
+     * greatest weight reachable from every state, so that topK of a loaded
+     * dictionary needs no preparation.
+     * 
+     * @throws IllegalStateException if the automaton carries values which
+     * are not weights
+     */
+    public void setWeighted(boolean weighted) {
+        if (weighted && valued && !this.weighted) {
+            throw new IllegalStateException("Automaton carries values, they are not weights");
+        }
+        
+        this.weighted = weighted;
+    }
+    
+    @Override
+    public boolean hasValues() {
+        return valued;
+    }
+    
+    void setValued() {
+        valued = true;
+    }
+    
+    @Override
+    protected long output(int state) {
+        return states.get(state).output();
+    }
+    
+    /**
+     * Drops discarded and unreachable states and renumbers the rest in
+     * depth-first order from the root, so that states of a lookup path sit
+     * close together in memory. Discarded slots are no longer reused after
+     * that since there are none.
+     */
+    public void compact() {
+        int[] order = depthFirstOrder();
+        int[] position = new int[states.size()];
+        List<AutoState> compacted = new ArrayList<>(order.length);
+        
+        for (int i = 0; i < order.length; i++) {
+            position[order[i]] = i;
+        }
+        
+        for (int state : order) {
+            AutoState wrapper = states.get(state);
+            char[] keys = new char[wrapper.transitionCount()];
+            int[] targets = new int[keys.length];
+            
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = wrapper.key(i);
+                targets[i] = position[wrapper.target(i)];
+            }
+            
+            AutoState copy = new AutoState(wrapper.value(), wrapper.isTerminal(), (short) 0, keys, targets);
+            copy.setOutput(wrapper.output());
+            copy.epoch = epoch;
+            compacted.add(copy);
+        }
+        
+        AutomatonBuilder.countInbounds(compacted);
+        long[] oldCounts = counts;
+        
+        if (oldCounts != null) {
+            long[] newCounts = new long[order.length];
+            
+            for (int i = 0; i < order.length; i++) {
+                newCounts[i] = oldCounts[order[i]];
+            }
+            
+            counts = newCounts;
+        }
+        
+        long[] oldWeights = weights;
+        
+        if (oldWeights != null) {
+            long[] newWeights = new long[order.length];
+            
+            for (int i = 0; i < order.length; i++) {
+                newWeights[i] = oldWeights[order[i]];
+            }
+            
+            weights = newWeights;
+        }
+        
+        states.clear();
+        states.addAll(compacted);
+        
+        register.clear();
+        
+        for (int state = 1; state < states.size(); state++) {
+            register.add(state, states.get(state));
+        }
+    }
+    
+    /**
+     * Adds all entries of the other dictionary by walking both state graphs
+     * together, so the time depends on the number of states rather than on
+     * the number of entries. Every pair of states is built once and equal
+     * results are shared through the register, the automaton stays minimal.
+     * Values of the other dictionary replace values of equal keys. The
+     * automaton becomes weighted if the other one is weighted.
+     * 
+     * @throws IllegalArgumentException if one side carries values and the
+     * other one weights
+     */
+    public void merge(AbstractDictionary other) {
+        if (other.reversed != reversed) {
+            throw new IllegalArgumentException("Cannot merge reversed and not reversed dictionaries");
+        }
+        
+        if (valued && !weighted && other.weighted || other.hasValues() && !other.weighted && weighted) {
+            throw new IllegalArgumentException("Cannot merge values with weights");
+        }
+        
+        int before = listener != null ? reachableTransitions() : 0;
+        List<AutoState> merged = new ArrayList<>(states.size() + other.stateCount());
+        new Product(this, other, merged).build();
+        
+        for (AutoState state : merged) {
+            state.epoch = epoch;
+        }
+        
+        counts = null;
+        weights = null;
+        valued |= other.hasValues();
+        weighted |= other.weighted;
+        
+        states.clear();
+        states.addAll(merged);
+        
+        register.clear();
+        
+        for (int state = 1; state < states.size(); state++) {
+            register.add(state, states.get(state));
+        }
+        
+        if (listener != null) {
+            listener.transitionsAdded(reachableTransitions() - before);
+        }
+    }
+    
+    /**
+     * @return automaton holding entries of all dictionaries, values of
+     * later ones replace values of equal keys
+     */
+    public static Automaton union(AbstractDictionary... dictionaries) {
+        Automaton result = new Automaton(dictionaries.length > 0 && dictionaries[0].isReversed());
+        
+        for (AbstractDictionary dictionary : dictionaries) {
+            result.merge(dictionary);
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Writes states reachable from the root in depth-first order, discarded
+     * states are left out.
+     */
+    public void save(OutputStream stream, boolean editable) throws IOException {
+        DataOutputStream output = new DataOutputStream(stream);
+        long[] counts = numbered ? counts() : null;
+        long[] weights = weighted ? weights() : null;
+        int[] order = depthFirstOrder();
+        int[] position = new int[states.size()];
+        
+        for (int i = 0; i < order.length; i++) {
+            position[order[i]] = i;
+        }
+        
+        output.writeByte((editable ? StateReader.EDITABLE : 0) | (numbered ? StateReader.NUMBERED : 0) | (valued ? StateReader.VALUES : 0) | (reversed ? StateReader.REVERSED : 0) | (weighted ? StateReader.WEIGHTED : 0) | (numbered ? StateReader.LONG_COUNTS : 0));
+        output.writeInt(order.length);
+        
+        for (int state : order) {
+            AutoState wrapper = states.get(state);
+            output.writeBoolean(wrapper.isTerminal());
+            output.writeShort(wrapper.transitionCount());
+            
+            if (editable) {
+                output.writeShort(wrapper.inboundCount());
+                output.writeChar(wrapper.value());
+            }
+            
+            if (numbered) {
+                output.writeLong(counts[state]);
+            }
+            
+            if (weighted) {
+                output.writeLong(weights[state]);
+            }
+            
+            if (valued && wrapper.isTerminal()) {
+                output.writeLong(wrapper.output());
+            }
+
+            for (int i = 0; i < wrapper.transitionCount(); i++) {
+                output.writeChar(wrapper.key(i));
+                output.writeInt(position[wrapper.target(i)]);
+            }
+        }
+
+        output.flush();
+    }
+    
+    /**
+     * Writes the read-only compact format, several times smaller than the
+     * one written by save. Dictionary.load and FlatDictionary.load tell the
+     * formats apart by themselves. States are renumbered and discarded
+     * states are left out.
+     */
+    public void saveCompact(OutputStream stream) throws IOException {
+        new CompactWriter(this, stream).write(numbered ? counts() : null, weighted ? weights() : null, valued, reversed);
+    }
+    
+    /**
+     * Publishes the current contents as a read-only dictionary which can be
+     * searched by any number of threads while this automaton keeps being
+     * modified by its single writer thread. Nothing is copied up front,
+     * later changes copy the states and state list chunks they touch.
+     * The snapshot has to be handed to other threads safely, e.g. through a
+     * volatile field.
+     */
+    public Dictionary<AutoState> snapshot() {
+        Snapshot snapshot = new Snapshot(((StateList) states).snapshot(), valued, reversed, weighted, counts, weights);
+        epoch++;
+        
+        return snapshot;
+    }
+    
+    public int discardedCount() {
+        return register.discardedStatesCount();
+    }
+    
+    public static Automaton load(InputStream stream) throws IOException {        
+        StateReader input = new StateReader(stream);
+        List<AutoState> states = new StateList();
+        Register register = new Register(states);
+        
+        if (!input.hasFlag(StateReader.EDITABLE)) {
+            throw new IOException("Trying to load Automaton from read-only binary format");
+        }
+        
+        long[] counts = input.hasFlag(StateReader.NUMBERED) ? new long[input.stateCount()] : null;
+        long[] weights = input.hasFlag(StateReader.WEIGHTED) ? new long[input.stateCount()] : null;
+        
+        while (input.hasNext()) {
+            int index = states.size();
+            input.next();
+            
+            AutoState state = new AutoState(input.value(), input.isTerminal(), input.inboundCount(), input.keyArray(), input.transitionArray());
+            state.setOutput(input.output());
+            
+            if (counts != null) {
+                counts[index] = input.count();
+            }
+            
+            if (weights != null) {
+                weights[index] = input.weight();
+            }
+            
+            states.add(state);
+            
+            if (index > 0 && input.inboundCount() == 0) {
+                register.discard(index);
+            } else if (index > 0) {
+                register.add(index, state);
+            }
+        }
+        
+        Automaton automaton = new Automaton(states, register);
+        
+        if (input.hasFlag(StateReader.NUMBERED)) {
+            automaton.numbered = true;
+            automaton.counts = counts;
+        }
+        
+        if (input.hasFlag(StateReader.WEIGHTED)) {
+            automaton.weighted = true;
+            automaton.weights = weights;
+        }
+        
+        automaton.valued = input.hasFlag(StateReader.VALUES);
+        automaton.reversed = input.hasFlag(StateReader.REVERSED);
+        
+        return automaton;
+    }
+    
+    /**
+     * Builds the minimal automaton of the union from pairs of states of both
+     * dictionaries, -1 standing for a missing side. Pairs are walked in
+     * post-order on an explicit stack, so a state is created after its
+     * targets and entry length is not limited by the thread stack. The root
+     * takes the place kept for it at index 0.
+     */
+    private static class Product {
+        private final AbstractDictionary left;
+        private final AbstractDictionary right;
+        private final List<AutoState> states;
+        private final Register register;
+        private final int[] leftOnly;
+        private final int[] rightOnly;
+        private final Map<Long, Integer> built;
+        
+        // Stack of pairs with the next edge index on each side and the edges done so far
+        private int[] pairs;
+        private int[] edges;
+        private char[] values;
+        private int[] counts;
+        private char[][] keys;
+        private int[][] targets;
+        private int size;
+        
+        Product(AbstractDictionary left, AbstractDictionary right, List<AutoState> states) {
+            this.left = left;
+            this.right = right;
+            this.states = states;
+            this.register = new Register(states);
+            this.leftOnly = new int[left.stateCount()];
+            this.rightOnly = new int[right.stateCount()];
+            this.built = new HashMap<>();
+            
+            this.pairs = new int[32];
+            this.edges = new int[32];
+            this.values = new char[16];
+            this.counts = new int[16];
+            this.keys = new char[16][];
+            this.targets = new int[16][];
+            this.size = 0;
+            
+            Arrays.fill(leftOnly, -1);
+            Arrays.fill(rightOnly, -1);
+        }
+        
+        void build() {
+            states.add(null);
+            push(0, 0, '\0');
+            
+            while (size > 0) {
+                int top = size - 1;
+                int a = pairs[2 * top];
+                int b = pairs[2 * top + 1];
+                int i = edges[2 * top];
+                int j = edges[2 * top + 1];
+                int leftCount = a == -1 ? 0 : left.transitionCount(a);
+                int rightCount = b == -1 ? 0 : right.transitionCount(b);
+                
+                if (i == leftCount && j == rightCount) {
+                    AutoState wrapper = pop(a, b);
+                    
+                    if (size == 0) {
+                        states.set(0, wrapper);
+                    } else {
+                        remember(a, b, register(wrapper));
+                    }
+                    
+                    continue;
+                }
+                
+                char leftKey = i < leftCount ? left.getKey(a, i) : Character.MAX_VALUE;
+                char rightKey = j < rightCount ? right.getKey(b, j) : Character.MAX_VALUE;
+                char key;
+                int childA = -1;
+                int childB = -1;
+                
+                // Keys equal to MAX_VALUE are told apart by the remaining counts
+                if (j == rightCount || i < leftCount && leftKey < rightKey) {
+                    key = leftKey;
+                    childA = left.getTarget(a, i);
+                } else if (i == leftCount || rightKey < leftKey) {
+                    key = rightKey;
+                    childB = right.getTarget(b, j);
+                } else {
+                    key = leftKey;
+                    childA = left.getTarget(a, i);
+                    childB = right.getTarget(b, j);
+                }
+                
+                int target = known(childA, childB);
+                
+                // The pair is looked up again once its state is built
+                if (target == -1) {
+                    push(childA, childB, key);
+                    continue;
+                }
+                
+                keys[top][counts[top]] = key;
+                targets[top][counts[top]++] = target;
+                edges[2 * top] = childA == -1 ? i : i + 1;
+                edges[2 * top + 1] = childB == -1 ? j : j + 1;
+            }
+            
+            AutomatonBuilder.countInbounds(states);
+        }
+        
+        private void push(int a, int b, char value) {
+            if (size == values.length) {
+                int length = size * 2;
+                pairs = Arrays.copyOf(pairs, length * 2);
+                edges = Arrays.copyOf(edges, length * 2);
+                values = Arrays.copyOf(values, length);
+                counts = Arrays.copyOf(counts, length);
+                keys = Arrays.copyOf(keys, length);
+                targets = Arrays.copyOf(targets, length);
+            }
+            
+            int edgeCount = (a == -1 ? 0 : left.transitionCount(a)) + (b == -1 ? 0 : right.transitionCount(b));
+            
+            if (keys[size] == null || keys[size].length < edgeCount) {
+                keys[size] = new char[Math.max(edgeCount, 4)];
+                targets[size] = new int[keys[size].length];
+            }
+            
+            pairs[2 * size] = a;
+            pairs[2 * size + 1] = b;
+            edges[2 * size] = 0;
+            edges[2 * size + 1] = 0;
+            values[size] = value;
+            counts[size] = 0;
+            size++;
+        }
+        
+        private AutoState pop(int a, int b) {
+            size--;
+            
+            boolean leftFinal = a != -1 && left.isFinal(a);
+            boolean rightFinal = b != -1 && right.isFinal(b);
+            char[] stateKeys = Arrays.copyOf(keys[size], counts[size]);
+            int[] stateTargets = Arrays.copyOf(targets[size], counts[size]);
+            AutoState wrapper = new AutoState(values[size], leftFinal || rightFinal, (short) 0, stateKeys, stateTargets);
+            
+            if (rightFinal && right.hasValues()) {
+                wrapper.setOutput(right.output(b));
+            } else if (leftFinal) {
+                wrapper.setOutput(left.output(a));
+            }
+            
+            return wrapper;
+        }
+        
+        // Pairs with a missing side are most of them and are kept in arrays
+        private int known(int a, int b) {
+            if (b == -1) {
+                return leftOnly[a];
+            } else if (a == -1) {
+                return rightOnly[b];
+            }
+            
+            Integer known = built.get(((long) a << 32) | b);
+            return known == null ? -1 : known;
+        }
+        
+        private void remember(int a, int b, int state) {
+            if (b == -1) {
+                leftOnly[a] = state;
+            } else if (a == -1) {
+                rightOnly[b] = state;
+            } else {
+                built.put(((long) a << 32) | b, state);
+            }
+        }
+        
+        private int register(AutoState wrapper) {
+            int index = register.get(states.size(), wrapper);
+            
+            if (index == -1) {
+                index = states.size();
+                states.add(wrapper);
+                register.add(index, wrapper);
+                
+                if (left.listener != null) {
+                    left.listener.registerMiss();
+                }
+            } else if (left.listener != null) {
+                left.listener.registerHit();
+            }
+            
+            return index;
+        }
+    }
+    
+    private static class Snapshot extends Dictionary<AutoState> {
+        private final boolean valued;
+        
+        Snapshot(List<AutoState> states, boolean valued, boolean reversed, boolean weighted, long[] counts, long[] weights) {
+            super(states);
+            this.valued = valued;
+            this.reversed = reversed;
+            this.weighted = weighted;
+            this.counts = counts;
+            this.weights = weights;
+        }
+        
+        @Override
+        public boolean hasValues() {
+            return valued;
+        }
+        
+        @Override
+        protected long output(int state) {
+            return states.get(state).output();
+        }
+    }
+    
+}
@@ -0,0 +1,204 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builds an Automaton from lexicographically sorted input using the sorted
+ * data algorithm of the same paper. Only the branch left behind by the
+ * previous word is minimized, so no states are ever cloned and inbound
+ * counters are computed once when the automaton is built.
+ *
+ * @author hedge
+ */
+public class AutomatonBuilder {
+    private final List<AutoState> states;
+    private final Register register;
+    private final Automaton automaton;
+    private char[] previous;
+    private int[] path;
+    private boolean empty;
+    private boolean built;
+    
+    public AutomatonBuilder() {
+        states = new StateList();
+        register = new Register(states);
+        states.add(new AutoState('\0', false));
+        automaton = new Automaton(states, register);
+        previous = new char[0];
+        path = new int[16];
+        empty = true;
+        built = false;
+    }
+    
+    /**
+     * Attaches a listener to the automaton being built, it receives the
+     * build events as Automaton.add would report them.
+     */
+    public void setListener(IMetricsListener listener) {
+        automaton.setListener(listener);
+    }
+    
+    /**
+     * Adds next word, words must come in String.compareTo order, duplicates
+     * are ignored.
+     * 
+     * @throws IllegalArgumentException if the word is less than the previous one
+     */
+    public void add(String value) {
+        insert(value, false, 0);
+    }
+    
+    /**
+     * Adds next key carrying given value, a duplicate key replaces the value
+     * of the previous one.
+     * 
+     * @throws IllegalArgumentException if the key is less than the previous one
+     */
+    public void put(String key, long value) {
+        insert(key, true, value);
+    }
+    
+    private void insert(String value, boolean hasOutput, long output) {
+        if (built) {
+            throw new IllegalStateException("Automaton is already built");
+        }
+        
+        char[] word = value.toCharArray();
+        int common = 0;
+        
+        while (common < word.length && common < previous.length && word[common] == previous[common]) {
+            common++;
+        }
+        
+        if (common < previous.length && (common == word.length || word[common] < previous[common])) {
+            throw new IllegalArgumentException("Input is not sorted: \"" + value + "\" after \"" + new String(previous) + "\"");
+        }
+        
+        if (!empty && common == word.length && common == previous.length) {
+            if (hasOutput) {
+                states.get(path[word.length]).setOutput(output);
+                automaton.setValued();
+            }
+            
+            return;
+        }
+        
+        minimize(common);
+        
+        if (path.length < word.length + 1) {
+            path = Arrays.copyOf(path, Math.max(word.length + 1, path.length * 2));
+        }
+        
+        for (int i = common; i < word.length; i++) {
+            int state = automaton.newState(word[i]);
+            states.get(path[i]).setTransition(word[i], state);
+            path[i + 1] = state;
+        }
+        
+        if (automaton.listener != null) {
+            automaton.listener.transitionsAdded(word.length - common);
+        }
+        
+        states.get(path[word.length]).setTerminal(true);
+        
+        if (hasOutput) {
+            states.get(path[word.length]).setOutput(output);
+            automaton.setValued();
+        }
+        
+        previous = word;
+        empty = false;
+    }
+    
+    /**
+     * Minimizes the last branch and returns the automaton, which can be
+     * extended further with Automaton.add.
+     */
+    public Automaton build() {
+        if (!built) {
+            minimize(0);
+            countInbounds(states);
+            built = true;
+        }
+        
+        return automaton;
+    }
+    
+    private void minimize(int prefixSize) {
+        for (int i = previous.length; i > prefixSize; i--) {
+            int state = path[i];
+            int registered = register.get(state, states.get(state));
+            
+            if (registered == -1) {
+                register.add(state, states.get(state));
+                
+                if (automaton.listener != null) {
+                    automaton.listener.registerMiss();
+                }
+            } else {
+                states.get(path[i - 1]).setTransition(previous[i - 1], registered);
+                register.discard(state);
+                path[i] = registered;
+                
+                if (automaton.listener != null) {
+                    automaton.listener.registerHit();
+                    automaton.listener.stateDiscarded();
+                    automaton.listener.transitionsAdded(-states.get(state).transitionCount());
+                }
+            }
+        }
+    }
+    
+    static void countInbounds(List<AutoState> states) {
+        boolean[] visited = new boolean[states.size()];
+        int[] stack = new int[16];
+        int size = 0;
+        
+        stack[size++] = 0;
+        visited[0] = true;
+        
+        while (size > 0) {
+            AutoState wrapper = states.get(stack[--size]);
+            
+            for (int i = 0; i < wrapper.transitionCount(); i++) {
+                int target = wrapper.target(i);
+                states.get(target).incrementInbound();
+                
+                if (!visited[target]) {
+                    visited[target] = true;
+                    
+                    if (size == stack.length) {
+                        stack = Arrays.copyOf(stack, size * 2);
+                    }
+                    
+                    stack[size++] = target;
+                }
+            }
+        }
+    }
+    
+}
@@ -0,0 +1,135 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.BitSet;
+
+/**
+ * Writes the compact binary format read by StateReader. States are written
+ * in depth-first order, so the first new target of a state is usually the
+ * next state written and its pointer is omitted. Keys are numbered as
+ * symbols of the alphabet in use and stored as deltas from the previous
+ * key of the state, packed into one varint with the edge flags, other
+ * targets are varints relative to the current state.
+ *
+ * @author hedge
+ */
+class CompactWriter {
+    static final int NEXT = 1;
+    static final int LAST = 2;
+    static final int FINAL = 4;
+    static final int FLAG_BITS = 3;
+    
+    private final AbstractDictionary dictionary;
+    private final DataOutputStream output;
+    
+    CompactWriter(AbstractDictionary dictionary, OutputStream stream) {
+        this.dictionary = dictionary;
+        this.output = new DataOutputStream(new BufferedOutputStream(stream));
+    }
+    
+    void write(long[] counts, long[] weights, boolean valued, boolean reversed) throws IOException {
+        int[] order = dictionary.depthFirstOrder();
+        int count = order.length;
+        int[] position = new int[dictionary.stateCount()];
+        BitSet used = new BitSet();
+        
+        for (int i = 0; i < count; i++) {
+            position[order[i]] = i;
+            
+            for (int j = 0; j < dictionary.transitionCount(order[i]); j++) {
+                used.set(dictionary.getKey(order[i], j));
+            }
+        }
+        
+        output.writeByte(StateReader.COMPACT_MAGIC);
+        output.writeByte(StateReader.COMPACT_VERSION);
+        output.writeByte((counts != null ? StateReader.NUMBERED : 0) | (valued ? StateReader.VALUES : 0) | (reversed ? StateReader.REVERSED : 0) | (weights != null ? StateReader.WEIGHTED : 0));
+        writeVarLong(count);
+        writeVarLong(used.cardinality());
+        
+        int[] symbols = new int[used.length()];
+        
+        for (int key = used.nextSetBit(0), previous = 0, symbol = 0; key >= 0; key = used.nextSetBit(key + 1)) {
+            writeVarLong(key - previous);
+            symbols[key] = symbol++;
+            previous = key;
+        }
+        
+        output.writeBoolean(dictionary.isFinal(0));
+        
+        for (int i = 0; i < count; i++) {
+            int state = order[i];
+            int transitions = dictionary.transitionCount(state);
+            
+            if (counts != null) {
+                writeVarLong(counts[state]);
+            }
+            
+            if (weights != null) {
+                long weight = weights[state];
+                writeVarLong((weight << 1) ^ (weight >> 63));
+            }
+            
+            if (valued && dictionary.isFinal(state)) {
+                long value = dictionary.output(state);
+                writeVarLong((value << 1) ^ (value >> 63));
+            }
+            
+            if (transitions == 0) {
+                writeVarLong(0);
+            }
+            
+            for (int j = 0, previous = -1; j < transitions; j++) {
+                int symbol = symbols[dictionary.getKey(state, j)];
+                int target = position[dictionary.getTarget(state, j)];
+                int flags = (target == i + 1 ? NEXT : 0) | (j == transitions - 1 ? LAST : 0) | (dictionary.isFinal(dictionary.getTarget(state, j)) ? FINAL : 0);
+                
+                writeVarLong(((long) (symbol - previous) << FLAG_BITS) | flags);
+                previous = symbol;
+                
+                if (target != i + 1) {
+                    long delta = target - i;
+                    writeVarLong((delta << 1) ^ (delta >> 63));
+                }
+            }
+        }
+        
+        output.flush();
+    }
+    
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            output.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        
+        output.writeByte((int) value);
+    }
+    
+}
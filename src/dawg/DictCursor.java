@@ -0,0 +1,147 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.util.Arrays;
+
+/**
+ * Position in a dictionary moved one character at a time, for consumers
+ * which get their input incrementally like autocompletion or tokenizers.
+ * Every move costs a single transition lookup and allocates nothing once
+ * the path buffers have grown to the longest prefix. A cursor is not thread
+ * safe, but any number of cursors can share a read-only dictionary. Moves
+ * are not reported to the metrics listener, since a call per character
+ * would cost more than the move, listSuffixes is reported as a traversal.
+ *
+ * @author hedge
+ */
+public class DictCursor {
+    private final AbstractDictionary dictionary;
+    private int[] path;
+    private char[] keys;
+    private int depth;
+    
+    public DictCursor(AbstractDictionary dictionary) {
+        this.dictionary = dictionary;
+        this.path = new int[16];
+        this.keys = new char[16];
+        this.depth = 0;
+    }
+    
+    /**
+     * Follows the transition by given character.
+     * 
+     * @return false if there is no such transition, the cursor stays where it was
+     */
+    public boolean advance(char value) {
+        int next = dictionary.getTransition(path[depth], value);
+        
+        if (next == -1) {
+            return false;
+        }
+        
+        if (depth + 1 == path.length) {
+            path = Arrays.copyOf(path, path.length * 2);
+            keys = Arrays.copyOf(keys, keys.length * 2);
+        }
+        
+        keys[depth] = value;
+        path[++depth] = next;
+        
+        return true;
+    }
+    
+    /**
+     * Undoes the last successful advance.
+     * 
+     * @return false if the cursor is already at the root
+     */
+    public boolean back() {
+        if (depth == 0) {
+            return false;
+        }
+        
+        depth--;
+        return true;
+    }
+    
+    /**
+     * Moves back to the root.
+     */
+    public void reset() {
+        depth = 0;
+    }
+    
+    /**
+     * @return true if the characters advanced so far form an entry
+     */
+    public boolean isTerminal() {
+        return dictionary.isFinal(path[depth]);
+    }
+    
+    /**
+     * @return true if some entry is longer than the current prefix
+     */
+    public boolean hasChildren() {
+        return dictionary.transitionCount(path[depth]) > 0;
+    }
+    
+    /**
+     * @return number of characters advanced
+     */
+    public int depth() {
+        return depth;
+    }
+    
+    /**
+     * @return character advanced at given depth
+     */
+    public char charAt(int index) {
+        if (index < 0 || index >= depth) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", depth: " + depth);
+        }
+        
+        return keys[index];
+    }
+    
+    /**
+     * @return characters advanced so far
+     */
+    public String prefix() {
+        return new String(keys, 0, depth);
+    }
+    
+    /**
+     * Collects suffixes of the current prefix in lexicographic order, the
+     * empty one included if the prefix is an entry.
+     */
+    public void listSuffixes(ICollector collector) {
+        dictionary.traverse(path[depth], collector);
+    }
+    
+    public void listSuffixes(ICharCollector collector) {
+        dictionary.traverse(path[depth], collector);
+    }
+    
+}
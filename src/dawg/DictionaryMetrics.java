@@ -0,0 +1,185 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Thread safe listener counting all events, also exported as an MXBean.
+ * Transitions are the number of transitions added minus removed since the
+ * listener was attached, so it matches the automaton when attached to an
+ * empty one.
+ *
+ * @author hedge
+ */
+public class DictionaryMetrics implements IMetricsListener, DictionaryMetricsMXBean {
+    private final AtomicLong registerHits = new AtomicLong();
+    private final AtomicLong registerMisses = new AtomicLong();
+    private final AtomicLong statesCloned = new AtomicLong();
+    private final AtomicLong statesDiscarded = new AtomicLong();
+    private final AtomicLong statesReused = new AtomicLong();
+    private final AtomicLong transitions = new AtomicLong();
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong transitionsVisited = new AtomicLong();
+    private final AtomicLong suffixesEmitted = new AtomicLong();
+    private final AtomicLong traversals = new AtomicLong();
+    private final AtomicInteger maxTraversalDepth = new AtomicInteger();
+    
+    /**
+     * Registers the metrics in the platform MBean server under
+     * dawg:type=DictionaryMetrics,name=[name].
+     */
+    public ObjectName register(String name) throws JMException {
+        ObjectName objectName = new ObjectName("dawg:type=DictionaryMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+    
+    @Override
+    public void registerHit() {
+        registerHits.incrementAndGet();
+    }
+    
+    @Override
+    public void registerMiss() {
+        registerMisses.incrementAndGet();
+    }
+    
+    @Override
+    public void statesCloned(int count) {
+        statesCloned.addAndGet(count);
+    }
+    
+    @Override
+    public void stateDiscarded() {
+        statesDiscarded.incrementAndGet();
+    }
+    
+    @Override
+    public void stateReused() {
+        statesReused.incrementAndGet();
+    }
+    
+    @Override
+    public void transitionsAdded(int count) {
+        transitions.addAndGet(count);
+    }
+    
+    @Override
+    public void lookup(int transitions) {
+        lookups.incrementAndGet();
+        transitionsVisited.addAndGet(transitions);
+    }
+    
+    @Override
+    public void traversal(int transitions, int suffixes, int depth) {
+        traversals.incrementAndGet();
+        transitionsVisited.addAndGet(transitions);
+        suffixesEmitted.addAndGet(suffixes);
+        
+        int max = maxTraversalDepth.get();
+        
+        while (depth > max && !maxTraversalDepth.compareAndSet(max, depth)) {
+            max = maxTraversalDepth.get();
+        }
+    }
+    
+    @Override
+    public long getRegisterHits() {
+        return registerHits.get();
+    }
+    
+    @Override
+    public long getRegisterMisses() {
+        return registerMisses.get();
+    }
+    
+    @Override
+    public long getStatesCloned() {
+        return statesCloned.get();
+    }
+    
+    @Override
+    public long getStatesDiscarded() {
+        return statesDiscarded.get();
+    }
+    
+    @Override
+    public long getStatesReused() {
+        return statesReused.get();
+    }
+    
+    @Override
+    public long getTransitions() {
+        return transitions.get();
+    }
+    
+    @Override
+    public long getLookups() {
+        return lookups.get();
+    }
+    
+    @Override
+    public long getTransitionsVisited() {
+        return transitionsVisited.get();
+    }
+    
+    @Override
+    public long getSuffixesEmitted() {
+        return suffixesEmitted.get();
+    }
+    
+    @Override
+    public long getTraversals() {
+        return traversals.get();
+    }
+    
+    @Override
+    public int getMaxTraversalDepth() {
+        return maxTraversalDepth.get();
+    }
+    
+    /**
+     * Resets query counters and build counters except transitions, which
+     * track the current size.
+     */
+    @Override
+    public void reset() {
+        registerHits.set(0);
+        registerMisses.set(0);
+        statesCloned.set(0);
+        statesDiscarded.set(0);
+        statesReused.set(0);
+        lookups.set(0);
+        transitionsVisited.set(0);
+        suffixesEmitted.set(0);
+        traversals.set(0);
+        maxTraversalDepth.set(0);
+    }
+    
+}
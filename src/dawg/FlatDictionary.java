@@ -0,0 +1,561 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Read-only dictionary which keeps all states in three flat arrays instead of
+ * one object per state. Transitions of state n occupy the range
+ * offsets[n]..offsets[n + 1] of both keys and targets arrays.
+ * 
+ * Keys are also numbered in order as symbols of the alphabet actually used.
+ * States with many transitions over a narrow symbol range are numbered right
+ * after the root and get a direct table indexed by symbol, so that their
+ * lookups need no search. States with a single transition compare the key,
+ * the rest are searched in the sorted keys.
+ *
+ * @author hedge
+ */
+public class FlatDictionary extends AbstractDictionary {
+    private static final int DENSE_MIN_TRANSITIONS = 8;
+    private static final int DENSE_MAX_SPREAD = 2;
+    
+    protected final int[] offsets;
+    protected final char[] keys;
+    protected final int[] targets;
+    protected final BitSet terminals;
+    
+    // Symbol of each key up to the largest one, -1 for keys which are never used
+    protected final int[] symbols;
+    
+    // Tables of states below denseCount occupy tableOffsets[n]..tableOffsets[n + 1] of table
+    protected final int denseCount;
+    protected final int[] tableOffsets;
+    protected final int[] tableBases;
+    protected final int[] table;
+    
+    public FlatDictionary(AbstractDictionary source) {
+        this(copy(source), source);
+    }
+    
+    /**
+     * Takes arrays with dense states already numbered right after the root
+     * and builds their direct tables. Per state data is copied from the
+     * source, if any.
+     */
+    private FlatDictionary(Layout layout, AbstractDictionary source) {
+        this.offsets = layout.offsets;
+        this.keys = layout.keys;
+        this.targets = layout.targets;
+        this.terminals = layout.terminals;
+        this.symbols = layout.symbols;
+        this.denseCount = layout.denseCount;
+        this.tableOffsets = new int[denseCount + 1];
+        this.tableBases = new int[denseCount];
+        
+        // The root is always first, it gets an empty table unless it is dense itself
+        for (int i = 0; i < denseCount; i++) {
+            int size = 0;
+            
+            if (isDense(symbols, keys, offsets[i], offsets[i + 1])) {
+                tableBases[i] = symbols[keys[offsets[i]]];
+                size = symbols[keys[offsets[i + 1] - 1]] - tableBases[i] + 1;
+            }
+            
+            tableOffsets[i + 1] = tableOffsets[i] + size;
+        }
+        
+        this.table = new int[tableOffsets[denseCount]];
+        Arrays.fill(table, -1);
+        
+        for (int i = 0; i < denseCount; i++) {
+            if (tableOffsets[i + 1] > tableOffsets[i]) {
+                for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                    table[tableOffsets[i] + symbols[keys[j]] - tableBases[i]] = targets[j];
+                }
+            }
+        }
+        
+        if (source != null) {
+            copyStateData(source, layout.order);
+        }
+    }
+    
+    private void copyStateData(AbstractDictionary source, int[] order) {
+        int count = order.length;
+        long[] sourceCounts = source.counts;
+        
+        if (sourceCounts != null) {
+            counts = new long[count];
+            
+            for (int i = 0; i < count; i++) {
+                counts[i] = sourceCounts[order[i]];
+            }
+        }
+        
+        long[] sourceWeights = source.weights;
+        
+        if (sourceWeights != null) {
+            weights = new long[count];
+            
+            for (int i = 0; i < count; i++) {
+                weights[i] = sourceWeights[order[i]];
+            }
+        }
+        
+        if (source.hasValues()) {
+            outputs = new long[count];
+            
+            for (int i = 0; i < count; i++) {
+                outputs[i] = source.output(order[i]);
+            }
+        }
+        
+        reversed = source.reversed;
+        weighted = source.weighted;
+    }
+    
+    private static Layout copy(AbstractDictionary source) {
+        int count = source.stateCount();
+        BitSet used = new BitSet();
+        
+        for (int state = 0; state < count; state++) {
+            for (int i = 0; i < source.transitionCount(state); i++) {
+                used.set(source.getKey(state, i));
+            }
+        }
+        
+        int[] symbols = symbols(used);
+        int[] order = new int[count];
+        int[] position = new int[count];
+        int next = 1;
+        
+        for (int state = 1; state < count; state++) {
+            if (isDense(source, symbols, state)) {
+                order[next++] = state;
+            }
+        }
+        
+        int denseCount = next;
+        
+        for (int state = 1; state < count; state++) {
+            if (!isDense(source, symbols, state)) {
+                order[next++] = state;
+            }
+        }
+        
+        int total = 0;
+        
+        for (int i = 0; i < count; i++) {
+            position[order[i]] = i;
+            total += source.transitionCount(order[i]);
+        }
+        
+        int[] offsets = new int[count + 1];
+        char[] keys = new char[total];
+        int[] targets = new int[total];
+        BitSet terminals = new BitSet(count);
+        int offset = 0;
+        
+        for (int i = 0; i < count; i++) {
+            int state = order[i];
+            offsets[i] = offset;
+            
+            if (source.isFinal(state)) {
+                terminals.set(i);
+            }
+            
+            for (int j = 0; j < source.transitionCount(state); j++) {
+                keys[offset] = source.getKey(state, j);
+                targets[offset] = position[source.getTarget(state, j)];
+                offset++;
+            }
+        }
+        
+        offsets[count] = offset;
+        
+        return new Layout(offsets, keys, targets, terminals, symbols, denseCount, order);
+    }
+    
+    /**
+     * Moves dense states right after the root within the given arrays,
+     * keeping the order of the rest, so that loading needs no second copy.
+     */
+    private static Layout renumber(int[] offsets, char[] keys, int[] targets, BitSet terminals) {
+        int count = offsets.length - 1;
+        BitSet used = new BitSet();
+        
+        for (char key : keys) {
+            used.set(key);
+        }
+        
+        int[] symbols = symbols(used);
+        BitSet dense = new BitSet(count);
+        int[] sizes = new int[count];
+        int[] order = new int[count];
+        
+        for (int state = 0; state < count; state++) {
+            sizes[state] = offsets[state + 1] - offsets[state];
+            order[state] = state;
+            
+            if (state > 0 && isDense(symbols, keys, offsets[state], offsets[state + 1])) {
+                dense.set(state);
+            }
+        }
+        
+        int denseCount = partition(1, count, offsets, keys, targets, sizes, order, dense);
+        int[] position = sizes;
+        
+        for (int i = 0; i < count; i++) {
+            position[order[i]] = i;
+        }
+        
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = position[targets[i]];
+        }
+        
+        BitSet renumbered = new BitSet(count);
+        
+        for (int i = 0; i < count; i++) {
+            if (terminals.get(order[i])) {
+                renumbered.set(i);
+            }
+        }
+        
+        return new Layout(offsets, keys, targets, renumbered, symbols, denseCount, order);
+    }
+    
+    /**
+     * Stable partition of the states at positions from..to by merging
+     * halves with rotations, moving their transitions along.
+     * 
+     * @return position following the last dense state
+     */
+    private static int partition(int from, int to, int[] offsets, char[] keys, int[] targets, int[] sizes, int[] order, BitSet dense) {
+        if (to - from <= 1) {
+            return from < to && dense.get(order[from]) ? to : from;
+        }
+        
+        int middle = (from + to) >>> 1;
+        int left = partition(from, middle, offsets, keys, targets, sizes, order, dense);
+        int right = partition(middle, to, offsets, keys, targets, sizes, order, dense);
+        
+        // Non-dense states left..middle swap places with dense states middle..right
+        if (left < middle && middle < right) {
+            rotate(keys, offsets[left], offsets[middle], offsets[right]);
+            rotate(targets, offsets[left], offsets[middle], offsets[right]);
+            rotate(order, left, middle, right);
+            
+            for (int i = left; i < right; i++) {
+                offsets[i + 1] = offsets[i] + sizes[order[i]];
+            }
+        }
+        
+        return left + right - middle;
+    }
+    
+    private static void rotate(char[] array, int from, int middle, int to) {
+        reverse(array, from, middle);
+        reverse(array, middle, to);
+        reverse(array, from, to);
+    }
+    
+    private static void reverse(char[] array, int from, int to) {
+        for (int i = from, j = to - 1; i < j; i++, j--) {
+            char value = array[i];
+            array[i] = array[j];
+            array[j] = value;
+        }
+    }
+    
+    private static void rotate(int[] array, int from, int middle, int to) {
+        reverse(array, from, middle);
+        reverse(array, middle, to);
+        reverse(array, from, to);
+    }
+    
+    private static void reverse(int[] array, int from, int to) {
+        for (int i = from, j = to - 1; i < j; i++, j--) {
+            int value = array[i];
+            array[i] = array[j];
+            array[j] = value;
+        }
+    }
+    
+    private static int[] symbols(BitSet used) {
+        int[] symbols = new int[used.length()];
+        Arrays.fill(symbols, -1);
+        
+        for (int key = used.nextSetBit(0), symbol = 0; key >= 0; key = used.nextSetBit(key + 1)) {
+            symbols[key] = symbol++;
+        }
+        
+        return symbols;
+    }
+    
+    private static boolean isDense(AbstractDictionary source, int[] symbols, int state) {
+        int count = source.transitionCount(state);
+        
+        return count >= DENSE_MIN_TRANSITIONS
+                && symbols[source.getKey(state, count - 1)] - symbols[source.getKey(state, 0)] < count * DENSE_MAX_SPREAD;
+    }
+    
+    private static boolean isDense(int[] symbols, char[] keys, int from, int to) {
+        return to - from >= DENSE_MIN_TRANSITIONS && symbols[keys[to - 1]] - symbols[keys[from]] < (to - from) * DENSE_MAX_SPREAD;
+    }
+    
+    @Override
+    public int stateCount() {
+        return offsets.length - 1;
+    }
+    
+    @Override
+    protected int getTransition(int state, char value) {
+        if (state < denseCount) {
+            int from = tableOffsets[state];
+            int size = tableOffsets[state + 1] - from;
+            
+            if (size > 0) {
+                int index = value < symbols.length ? symbols[value] - tableBases[state] : -1;
+                return index >= 0 && index < size ? table[from + index] : -1;
+            }
+        }
+        
+        int from = offsets[state];
+        int to = offsets[state + 1];
+        
+        if (to - from == 1) {
+            return keys[from] == value ? targets[from] : -1;
+        }
+        
+        int index = Arrays.binarySearch(keys, from, to, value);
+        
+        if (index < 0) {
+            return -1;
+        } else {
+            return targets[index];
+        }
+    }
+    
+    @Override
+    protected boolean isFinal(int state) {
+        return terminals.get(state);
+    }
+    
+    @Override
+    protected int transitionCount(int state) {
+        return offsets[state + 1] - offsets[state];
+    }
+    
+    @Override
+    protected char getKey(int state, int index) {
+        return keys[offsets[state] + index];
+    }
+    
+    @Override
+    protected int getTarget(int state, int index) {
+        return targets[offsets[state] + index];
+    }
+    
+    /**
+     * Writes the arrays as they are, so the file can be served by
+     * MappedDictionary without decoding. Word counts and greatest
+     * reachable values are not saved in this layout.
+     */
+    public void save(OutputStream stream) throws IOException {
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(stream));
+        int count = stateCount();
+        
+        output.writeInt(MappedDictionary.MAGIC);
+        output.writeInt(MappedDictionary.VERSION);
+        output.writeInt(count);
+        output.writeInt(keys.length);
+        output.writeInt((hasValues() ? MappedDictionary.VALUES : 0) | (reversed ? MappedDictionary.REVERSED : 0) | (weighted ? MappedDictionary.WEIGHTED : 0));
+        output.writeInt(0);
+        
+        if (hasValues()) {
+            for (long value : outputs) {
+                output.writeLong(value);
+            }
+        }
+        
+        for (int offset : offsets) {
+            output.writeInt(offset);
+        }
+        
+        for (int target : targets) {
+            output.writeInt(target);
+        }
+        
+        for (int i = 0; i < MappedDictionary.terminalWords(count); i++) {
+            int word = 0;
+            
+            for (int bit = 0; bit < 32; bit++) {
+                if (terminals.get((i << 5) + bit)) {
+                    word |= 1 << bit;
+                }
+            }
+            
+            output.writeInt(word);
+        }
+        
+        for (char key : keys) {
+            output.writeChar(key);
+        }
+        
+        output.flush();
+    }
+    
+    /**
+     * Reads any of the formats written by Automaton.save straight into flat
+     * arrays without creating intermediate state objects, dense states are
+     * then renumbered and given their direct tables.
+     */
+    public static FlatDictionary load(InputStream stream) throws IOException {
+        StateReader input = new StateReader(new BufferedInputStream(stream));
+        int expected = input.stateCount();
+        
+        int[] offsets = new int[expected + 1];
+        char[] keys = new char[Math.max(16, expected)];
+        int[] targets = new int[keys.length];
+        BitSet terminals = new BitSet(expected);
+        long[] counts = input.hasFlag(StateReader.NUMBERED) ? new long[expected] : null;
+        long[] weights = input.hasFlag(StateReader.WEIGHTED) ? new long[expected] : null;
+        long[] outputs = input.hasFlag(StateReader.VALUES) ? new long[expected] : null;
+        int offset = 0;
+        
+        for (int state = 0; state < expected; state++) {
+            input.next();
+            offsets[state] = offset;
+            
+            if (counts != null) {
+                counts[state] = input.count();
+            }
+            
+            if (weights != null) {
+                weights[state] = input.weight();
+            }
+            
+            if (outputs != null) {
+                outputs[state] = input.output();
+            }
+            
+            if (input.isTerminal()) {
+                terminals.set(state);
+            }
+            
+            int outCount = input.transitionCount();
+            
+            if (offset + outCount > keys.length) {
+                int length = Math.max(offset + outCount, keys.length + (keys.length >> 1));
+                keys = Arrays.copyOf(keys, length);
+                targets = Arrays.copyOf(targets, length);
+            }
+            
+            for (int i = 0; i < outCount; i++) {
+                keys[offset] = input.key(i);
+                targets[offset] = input.target(i);
+                offset++;
+            }
+        }
+        
+        offsets[expected] = offset;
+        
+        if (offset < keys.length) {
+            keys = Arrays.copyOf(keys, offset);
+            targets = Arrays.copyOf(targets, offset);
+        }
+        
+        Layout layout = renumber(offsets, keys, targets, terminals);
+        FlatDictionary loaded = new FlatDictionary(layout, null);
+        BitSet moved = new BitSet(expected);
+        
+        loaded.counts = counts == null ? null : permute(counts, layout.order, moved);
+        loaded.weights = weights == null ? null : permute(weights, layout.order, moved);
+        loaded.outputs = outputs == null ? null : permute(outputs, layout.order, moved);
+        loaded.reversed = input.hasFlag(StateReader.REVERSED);
+        loaded.weighted = input.hasFlag(StateReader.WEIGHTED);
+        
+        return loaded;
+    }
+    
+    /**
+     * Puts the value of state order[i] at index i in place, following the
+     * cycles of the permutation.
+     */
+    private static long[] permute(long[] values, int[] order, BitSet moved) {
+        moved.clear();
+        
+        for (int i = 0; i < values.length; i++) {
+            if (!moved.get(i)) {
+                long first = values[i];
+                int j = i;
+                
+                while (order[j] != i) {
+                    values[j] = values[order[j]];
+                    moved.set(j);
+                    j = order[j];
+                }
+                
+                values[j] = first;
+                moved.set(j);
+            }
+        }
+        
+        return values;
+    }
+    
+    /**
+     * Arrays of a dictionary being built, order[i] being the state which
+     * was renumbered to i.
+     */
+    private static class Layout {
+        final int[] offsets;
+        final char[] keys;
+        final int[] targets;
+        final BitSet terminals;
+        final int[] symbols;
+        final int denseCount;
+        final int[] order;
+        
+        Layout(int[] offsets, char[] keys, int[] targets, BitSet terminals, int[] symbols, int denseCount, int[] order) {
+            this.offsets = offsets;
+            this.keys = keys;
+            this.targets = targets;
+            this.terminals = terminals;
+            this.symbols = symbols;
+            this.denseCount = denseCount;
+            this.order = order;
+        }
+    }
+    
+}
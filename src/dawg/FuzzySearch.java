@@ -0,0 +1,180 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.util.Arrays;
+
+/**
+ * Finds entries within a Levenshtein distance of a query. Walking the
+ * dictionary runs a Levenshtein automaton of the query in lockstep, its
+ * state at each depth being one row of the edit distance matrix, and a
+ * branch is abandoned as soon as every cell of the row exceeds the budget.
+ *
+ * @author hedge
+ */
+class FuzzySearch {
+    private final AbstractDictionary dictionary;
+    private final String query;
+    private final int maxEdits;
+    private final IFuzzyCollector collector;
+    private final int[][] rows;
+    private final int[][] missRows;
+    private final char[][] bandKeys;
+    private final char[] buffer;
+    private final WalkStats stats = new WalkStats();
+    
+    FuzzySearch(AbstractDictionary dictionary, String query, int maxEdits, IFuzzyCollector collector) {
+        this.dictionary = dictionary;
+        this.query = query;
+        this.maxEdits = maxEdits;
+        this.collector = collector;
+        
+        // No row can stay within the budget deeper than query length plus the budget
+        this.rows = new int[query.length() + maxEdits + 2][query.length() + 1];
+        this.missRows = new int[rows.length][query.length() + 1];
+        this.bandKeys = new char[rows.length][2 * maxEdits + 1];
+        this.buffer = new char[rows.length];
+    }
+    
+    void search() {
+        int[] first = rows[0];
+        
+        for (int j = 0; j < first.length; j++) {
+            first[j] = Math.min(j, maxEdits + 1);
+        }
+        
+        visit(0, 0, first);
+        
+        stats.report(dictionary);
+    }
+    
+    private void visit(int state, int depth, int[] current) {
+        int length = query.length();
+        
+        if (depth > 0) {
+            stats.transitions(1);
+        }
+        
+        if (dictionary.isFinal(state) && length <= depth + maxEdits && current[length] <= maxEdits) {
+            collector.collect(new String(buffer, 0, depth), current[length]);
+            stats.entry(depth);
+        }
+        
+        // Only cells within maxEdits of the diagonal can stay within the budget
+        int from = Math.max(1, depth + 1 - maxEdits);
+        int to = Math.min(length, depth + 1 + maxEdits);
+        
+        // Keys absent from that part of the query all lead to the same row
+        int[] miss = missRows[depth + 1];
+        int[] next = rows[depth + 1];
+        boolean missing = fill(current, miss, depth, from, to, '\0', false) <= maxEdits;
+        
+        if (missing) {
+            for (int i = 0; i < dictionary.transitionCount(state); i++) {
+                char key = dictionary.getKey(state, i);
+                
+                if (inBand(key, from, to)) {
+                    if (fill(current, next, depth, from, to, key, true) <= maxEdits) {
+                        buffer[depth] = key;
+                        visit(dictionary.getTarget(state, i), depth + 1, next);
+                    }
+                } else {
+                    buffer[depth] = key;
+                    visit(dictionary.getTarget(state, i), depth + 1, miss);
+                }
+            }
+        } else if (dictionary.transitionCount(state) <= 2 * (to - from + 1)) {
+            // Only keys present in the query can stay within the budget
+            for (int i = 0; i < dictionary.transitionCount(state); i++) {
+                char key = dictionary.getKey(state, i);
+                
+                if (inBand(key, from, to) && fill(current, next, depth, from, to, key, true) <= maxEdits) {
+                    buffer[depth] = key;
+                    visit(dictionary.getTarget(state, i), depth + 1, next);
+                }
+            }
+        } else {
+            // Large states are cheaper to probe for those keys directly
+            char[] keys = bandKeys[depth];
+            int count = 0;
+            
+            for (int j = from; j <= to; j++) {
+                char key = query.charAt(j - 1);
+                
+                if (!inBand(key, from, j - 1)) {
+                    keys[count++] = key;
+                }
+            }
+            
+            Arrays.sort(keys, 0, count);
+            
+            for (int i = 0; i < count; i++) {
+                int target = dictionary.getTransition(state, keys[i]);
+                
+                if (target != -1 && fill(current, next, depth, from, to, keys[i], true) <= maxEdits) {
+                    buffer[depth] = keys[i];
+                    visit(target, depth + 1, next);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Computes the row following current one by given key.
+     * 
+     * @return minimum value of the row
+     */
+    private int fill(int[] current, int[] next, int depth, int from, int to, char key, boolean matching) {
+        int limit = maxEdits + 1;
+        int minimum = next[0] = Math.min(depth + 1, limit);
+        
+        if (from > 1) {
+            next[from - 1] = limit;
+        }
+        
+        for (int j = from; j <= to; j++) {
+            int cost = matching && query.charAt(j - 1) == key ? 0 : 1;
+            int cell = Math.min(Math.min(current[j] + 1, next[j - 1] + 1), current[j - 1] + cost);
+            next[j] = Math.min(cell, limit);
+            minimum = Math.min(minimum, next[j]);
+        }
+        
+        if (to < query.length()) {
+            next[to + 1] = limit;
+        }
+        
+        return minimum;
+    }
+    
+    private boolean inBand(char key, int from, int to) {
+        for (int j = from; j <= to; j++) {
+            if (query.charAt(j - 1) == key) {
+                return true;
+            }
+        }
+        
+        return false;
+    }
+    
+}
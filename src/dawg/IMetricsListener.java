@@ -0,0 +1,84 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+/**
+ * Receives build and query events of a dictionary, see
+ * AbstractDictionary.setListener. Build events are reported by
+ * Automaton.add, remove, put and merge, by AutomatonBuilder and by
+ * ParallelAutomatonBuilder, compact reports nothing since it changes no
+ * entries. Called on the thread doing the work, so implementations
+ * shared between threads have to be thread safe.
+ *
+ * @author hedge
+ */
+public interface IMetricsListener {
+    
+    /**
+     * Equal state was found in the register, the new one is merged into it.
+     */
+    void registerHit();
+    
+    /**
+     * No equal state was found, the state is added to the register.
+     */
+    void registerMiss();
+    
+    /**
+     * States shared by other words were cloned before adding a word.
+     */
+    void statesCloned(int count);
+    
+    void stateDiscarded();
+    
+    /**
+     * A discarded state was reused for a new one.
+     */
+    void stateReused();
+    
+    /**
+     * Transitions were added, or removed when count is negative.
+     */
+    void transitionsAdded(int count);
+    
+    /**
+     * A word or prefix was looked up following given number of transitions.
+     * Reported by every query taking a word, prefix or suffix, by indexOf,
+     * wordAt, longestMatch and longestSuffixMatch, and by findAll and
+     * findLongest once per start position. Batched lookups report every value with the
+     * transitions it did not share with the previous one. DictCursor moves
+     * are not reported.
+     */
+    void lookup(int transitions);
+    
+    /**
+     * Entries below a state were listed, or found by fuzzySearch,
+     * listMatches or topK.
+     * 
+     * @param transitions transitions followed by the walk
+     * @param suffixes entries emitted
+     * @param depth length of the longest entry emitted
+     */
+    void traversal(int transitions, int suffixes, int depth);
+}
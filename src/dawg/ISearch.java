@@ -1,36 +1,94 @@
-/*
- * The MIT License
- *
- * Copyright 2020 hedgeonline.
- *
- * Permission is hereby granted, free of charge, to any person obtaining a copy
- * of this software and associated documentation files (the "Software"), to deal
- * in the Software without restriction, including without limitation the rights
- * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
- * copies of the Software, and to permit persons to whom the Software is
- * furnished to do so, subject to the following conditions:
- *
- * The above copyright notice and this permission notice shall be included in
- * all copies or substantial portions of the Software.
- *
- * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
- * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
- * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
- * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
- * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
- * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
- * THE SOFTWARE.
- */
-package dawg;
-
-import java.util.List;
-
-/**
- *
- * @author hedge
- */
-public interface ISearch {
-    List<String> listSuffixes(String prefix);
-    void listSuffixes(String prefix, ICollector collector);
-    boolean contains(String value);
-}
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *
+ * @author hedge
+ */
+public interface ISearch {
+    List<String> listSuffixes(String prefix);
+    void listSuffixes(String prefix, ICollector collector);
+    void listSuffixes(String prefix, ICharCollector collector);
+    
+    /**
+     * @return at most limit first suffixes in lexicographic order
+     */
+    List<String> listSuffixes(String prefix, int limit);
+    
+    /**
+     * The iterator is Closeable, closing one abandoned before its end
+     * reports the part walked so far to the metrics listener.
+     * 
+     * @return suffixes in lexicographic order, found lazily as the iterator advances
+     */
+    Iterator<String> iterateSuffixes(String prefix);
+    
+    boolean contains(String value);
+    
+    /**
+     * Checks all values at once, the result for values[i] is stored in
+     * result[i]. Faster than separate calls when values share prefixes.
+     */
+    void contains(String[] values, boolean[] result);
+    
+    /**
+     * @return suffixes of every prefix in the order of prefixes
+     */
+    List<List<String>> listSuffixes(String[] prefixes);
+    
+    /**
+     * @return entries within maxEdits insertions, deletions or substitutions
+     * from the query mapped to their distance, in lexicographic order
+     * @throws IllegalArgumentException if maxEdits is negative
+     */
+    Map<String, Integer> fuzzySearch(String query, int maxEdits);
+    void fuzzySearch(String query, int maxEdits, IFuzzyCollector collector);
+    
+    /**
+     * Pattern matches whole entries: ? is any character, * is any sequence,
+     * [abc], [a-z] and [^a-z] are character classes, \ escapes the next
+     * character and a trailing $ is allowed.
+     * 
+     * @return entries matching the pattern in lexicographic order
+     */
+    List<String> listMatches(String pattern);
+    void listMatches(String pattern, ICollector collector);
+    
+    /**
+     * Entries are ranked by their weights, see Automaton.add. Entries of a
+     * dictionary without values all weigh zero.
+     * 
+     * @return at most k entries starting with the prefix, greatest weights
+     * first and lexicographic among equal weights
+     * @throws IllegalStateException if the dictionary carries values
+     * which are not weights
+     */
+    List<String> topK(String prefix, int k);
+    void topK(String prefix, int k, ICollector collector);
+}
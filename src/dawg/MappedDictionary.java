@@ -0,0 +1,166 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only dictionary served directly from a file written by
+ * FlatDictionary.save. Nothing is decoded on load, the file is mapped into
+ * memory and shared with other processes through the page cache.
+ *
+ * @author hedge
+ */
+public class MappedDictionary extends AbstractDictionary {
+    public static final int MAGIC = 0x44415747;
+    public static final int VERSION = 2;
+    public static final int HEADER_SIZE = 24;
+    public static final int VALUES = 1;
+    public static final int REVERSED = 2;
+    public static final int WEIGHTED = 4;
+    
+    private final int stateCount;
+    private final IntBuffer offsets;
+    private final IntBuffer targets;
+    private final IntBuffer terminals;
+    private final CharBuffer keys;
+    private final LongBuffer values;
+    
+    protected MappedDictionary(ByteBuffer buffer) throws IOException {
+        int version = buffer.getInt(4);
+        
+        if (buffer.getInt(0) != MAGIC || version < 1 || version > VERSION) {
+            throw new IOException("Not a mappable dictionary file");
+        }
+        
+        stateCount = buffer.getInt(8);
+        int transitionCount = buffer.getInt(12);
+        int flags = version > 1 ? buffer.getInt(16) : 0;
+        int position = version > 1 ? HEADER_SIZE : 16;
+        reversed = (flags & REVERSED) != 0;
+        weighted = (flags & WEIGHTED) != 0;
+        
+        // Values go first to keep them 8 byte aligned
+        if ((flags & VALUES) != 0) {
+            values = slice(buffer, position, stateCount * 8).asLongBuffer();
+            position += stateCount * 8;
+        } else {
+            values = null;
+        }
+        
+        offsets = slice(buffer, position, (stateCount + 1) * 4).asIntBuffer();
+        position += (stateCount + 1) * 4;
+        
+        targets = slice(buffer, position, transitionCount * 4).asIntBuffer();
+        position += transitionCount * 4;
+        
+        terminals = slice(buffer, position, terminalWords(stateCount) * 4).asIntBuffer();
+        position += terminalWords(stateCount) * 4;
+        
+        keys = slice(buffer, position, transitionCount * 2).asCharBuffer();
+    }
+    
+    @Override
+    public int stateCount() {
+        return stateCount;
+    }
+    
+    @Override
+    protected int getTransition(int state, char value) {
+        int low = offsets.get(state);
+        int high = offsets.get(state + 1) - 1;
+        
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char key = keys.get(middle);
+            
+            if (key < value) {
+                low = middle + 1;
+            } else if (key > value) {
+                high = middle - 1;
+            } else {
+                return targets.get(middle);
+            }
+        }
+        
+        return -1;
+    }
+    
+    @Override
+    public boolean hasValues() {
+        return values != null;
+    }
+    
+    @Override
+    protected long output(int state) {
+        return values == null ? 0 : values.get(state);
+    }
+    
+    @Override
+    protected boolean isFinal(int state) {
+        return (terminals.get(state >>> 5) & (1 << (state & 31))) != 0;
+    }
+    
+    @Override
+    protected int transitionCount(int state) {
+        return offsets.get(state + 1) - offsets.get(state);
+    }
+    
+    @Override
+    protected char getKey(int state, int index) {
+        return keys.get(offsets.get(state) + index);
+    }
+    
+    @Override
+    protected int getTarget(int state, int index) {
+        return targets.get(offsets.get(state) + index);
+    }
+    
+    static int terminalWords(int stateCount) {
+        return (stateCount + 31) >>> 5;
+    }
+    
+    private static ByteBuffer slice(ByteBuffer buffer, int position, int length) {
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(position);
+        duplicate.limit(position + length);
+        return duplicate.slice();
+    }
+    
+    public static MappedDictionary map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new MappedDictionary(buffer);
+        }
+    }
+    
+}
@@ -0,0 +1,354 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Builds an Automaton from sorted input on several cores. The input is cut
+ * into contiguous ranges, every range is compiled by its own
+ * AutomatonBuilder and the partial automata are then merged under a common
+ * root, equivalent states of different partitions are unified through a
+ * single Register.
+ *
+ * @author hedge
+ */
+public class ParallelAutomatonBuilder {
+    private static final int MIN_PARTITION_SIZE = 4096;
+    
+    private final ForkJoinPool pool;
+    private final int partitionCount;
+    private IMetricsListener listener;
+    
+    public ParallelAutomatonBuilder(ForkJoinPool pool) {
+        this(pool, pool.getParallelism() * 4);
+    }
+    
+    public ParallelAutomatonBuilder(ForkJoinPool pool, int partitionCount) {
+        this.pool = pool;
+        this.partitionCount = partitionCount;
+    }
+    
+    /**
+     * Attaches a listener to the automata being built. It receives the
+     * build events of every partition, from several threads at once, and
+     * the register lookups and transition changes of the final merge.
+     */
+    public void setListener(IMetricsListener listener) {
+        this.listener = listener;
+    }
+    
+    /**
+     * @param words words in String.compareTo order, as for AutomatonBuilder
+     * @throws IllegalArgumentException if the input is not sorted
+     */
+    public Automaton build(final List<String> words) {
+        int partitions = Math.max(1, Math.min(partitionCount, words.size() / MIN_PARTITION_SIZE));
+        List<Callable<Automaton>> tasks = new ArrayList<>();
+        
+        for (int i = 0; i < partitions; i++) {
+            final int from = (int) ((long) words.size() * i / partitions);
+            final int to = (int) ((long) words.size() * (i + 1) / partitions);
+            
+            if (from > 0 && words.get(from - 1).compareTo(words.get(from)) > 0) {
+                throw new IllegalArgumentException("Input is not sorted: \"" + words.get(from) + "\" after \"" + words.get(from - 1) + "\"");
+            }
+            
+            tasks.add(new Callable<Automaton>() {
+                @Override
+                public Automaton call() {
+                    AutomatonBuilder builder = new AutomatonBuilder();
+                    builder.setListener(listener);
+                    
+                    for (String word : words.subList(from, to)) {
+                        builder.add(word);
+                    }
+                    
+                    return builder.build();
+                }
+            });
+        }
+        
+        List<Automaton> parts = new ArrayList<>();
+        
+        for (Future<Automaton> future : pool.invokeAll(tasks)) {
+            try {
+                parts.add(future.get());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(ex);
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) ex.getCause();
+                }
+                
+                throw new IllegalStateException(ex.getCause());
+            }
+        }
+        
+        if (parts.size() == 1) {
+            return parts.get(0);
+        }
+        
+        return new Merger(parts, listener).merge();
+    }
+    
+    /**
+     * Since the partitions are contiguous ranges of sorted input, they can
+     * only share the prefixes of their boundary words. States along those
+     * prefixes are merged key by key, everything below them belongs to a
+     * single partition and is imported state by state.
+     */
+    private static class Merger {
+        private final List<Automaton> parts;
+        private final int[][] imported;
+        private final List<AutoState> states;
+        private final Register register;
+        private final IMetricsListener listener;
+        
+        Merger(List<Automaton> parts, IMetricsListener listener) {
+            this.parts = parts;
+            this.listener = listener;
+            this.imported = new int[parts.size()][];
+            this.states = new StateList();
+            this.register = new Register(states);
+            
+            for (int i = 0; i < parts.size(); i++) {
+                imported[i] = new int[parts.get(i).stateCount()];
+                Arrays.fill(imported[i], -1);
+            }
+            
+            states.add(null);
+        }
+        
+        Automaton merge() {
+            int[] partList = new int[parts.size()];
+            int[] stateList = new int[parts.size()];
+            
+            for (int i = 0; i < partList.length; i++) {
+                partList[i] = i;
+            }
+            
+            states.set(0, mergeStates(partList, stateList));
+            AutomatonBuilder.countInbounds(states);
+            
+            Automaton automaton = new Automaton(states, register);
+            automaton.setListener(listener);
+            
+            if (listener != null) {
+                int partTransitions = 0;
+                
+                for (Automaton part : parts) {
+                    partTransitions += part.reachableTransitions();
+                }
+                
+                listener.transitionsAdded(automaton.reachableTransitions() - partTransitions);
+            }
+            
+            return automaton;
+        }
+        
+        /**
+         * Merges the states reached by the same prefix in several parts.
+         * Keys present in more than one part lead to states which are
+         * merged in turn, so the frames are kept on an explicit stack.
+         */
+        private AutoState mergeStates(int[] partList, int[] stateList) {
+            Frame[] stack = new Frame[16];
+            int size = 0;
+            AutoState merged = null;
+            
+            stack[size++] = new Frame(partList, stateList, partList.length, '\0');
+            
+            while (true) {
+                Frame top = stack[size - 1];
+                
+                if (merged != null) {
+                    top.targets[top.next++] = intern(merged);
+                    merged = null;
+                }
+                
+                Frame child = null;
+                
+                while (child == null && top.next < top.keys.length) {
+                    char key = top.keys[top.next];
+                    int[] childParts = new int[top.count];
+                    int[] childStates = new int[top.count];
+                    int childCount = 0;
+                    
+                    for (int i = 0; i < top.count; i++) {
+                        int target = parts.get(top.parts[i]).states.get(top.states[i]).transition(key);
+                        
+                        if (target != -1) {
+                            childParts[childCount] = top.parts[i];
+                            childStates[childCount] = target;
+                            childCount++;
+                        }
+                    }
+                    
+                    if (childCount == 1) {
+                        top.targets[top.next++] = importState(childParts[0], childStates[0]);
+                    } else {
+                        child = new Frame(childParts, childStates, childCount, key);
+                    }
+                }
+                
+                if (child != null) {
+                    if (size == stack.length) {
+                        stack = Arrays.copyOf(stack, size * 2);
+                    }
+                    
+                    stack[size++] = child;
+                } else {
+                    merged = new AutoState(top.value, top.terminal, (short) 0, top.keys, top.targets);
+                    size--;
+                    
+                    if (size == 0) {
+                        return merged;
+                    }
+                }
+            }
+        }
+        
+        private int importState(int part, int state) {
+            List<AutoState> source = parts.get(part).states;
+            int[] mapping = imported[part];
+            int[] stack = new int[16];
+            int size = 0;
+            
+            stack[size++] = state;
+            
+            while (size > 0) {
+                int top = stack[size - 1];
+                
+                if (mapping[top] != -1) {
+                    size--;
+                    continue;
+                }
+                
+                AutoState wrapper = source.get(top);
+                boolean ready = true;
+                
+                for (int i = 0; i < wrapper.transitionCount(); i++) {
+                    if (mapping[wrapper.target(i)] == -1) {
+                        if (size == stack.length) {
+                            stack = Arrays.copyOf(stack, size * 2);
+                        }
+                        
+                        stack[size++] = wrapper.target(i);
+                        ready = false;
+                    }
+                }
+                
+                if (ready) {
+                    int[] targets = new int[wrapper.transitionCount()];
+                    char[] keys = new char[targets.length];
+                    
+                    for (int i = 0; i < targets.length; i++) {
+                        keys[i] = wrapper.key(i);
+                        targets[i] = mapping[wrapper.target(i)];
+                    }
+                    
+                    mapping[top] = intern(new AutoState(wrapper.value(), wrapper.isTerminal(), (short) 0, keys, targets));
+                    size--;
+                }
+            }
+            
+            return mapping[state];
+        }
+        
+        private int intern(AutoState wrapper) {
+            int index = states.size();
+            states.add(wrapper);
+            int registered = register.get(index, wrapper);
+            
+            if (registered == -1) {
+                register.add(index, wrapper);
+                
+                if (listener != null) {
+                    listener.registerMiss();
+                }
+                
+                return index;
+            } else {
+                states.remove(index);
+                
+                if (listener != null) {
+                    listener.registerHit();
+                }
+                
+                return registered;
+            }
+        }
+        
+        /**
+         * States of several parts reached by the same prefix, with the union
+         * of their keys and the targets merged so far.
+         */
+        private class Frame {
+            private final int[] parts;
+            private final int[] states;
+            private final int count;
+            private final char value;
+            private final boolean terminal;
+            private final char[] keys;
+            private final int[] targets;
+            private int next;
+            
+            Frame(int[] parts, int[] states, int count, char value) {
+                this.parts = parts;
+                this.states = states;
+                this.count = count;
+                this.value = value;
+                
+                boolean terminal = false;
+                char[] keys = new char[0];
+                
+                for (int i = 0; i < count; i++) {
+                    AutoState wrapper = Merger.this.parts.get(parts[i]).states.get(states[i]);
+                    terminal |= wrapper.isTerminal();
+                    
+                    for (int j = 0; j < wrapper.transitionCount(); j++) {
+                        int index = Arrays.binarySearch(keys, wrapper.key(j));
+                        
+                        if (index < 0) {
+                            keys = AutoState.insert(keys, -index - 1, wrapper.key(j));
+                        }
+                    }
+                }
+                
+                this.terminal = terminal;
+                this.keys = keys;
+                this.targets = new int[keys.length];
+            }
+        }
+    }
+    
+}
@@ -1,84 +1,211 @@
-/*
- * The MIT License
- *
- * Copyright 2020 hedgeonline.
- *
- * Permission is hereby granted, free of charge, to any person obtaining a copy
- * of this software and associated documentation files (the "Software"), to deal
- * in the Software without restriction, including without limitation the rights
- * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
- * copies of the Software, and to permit persons to whom the Software is
- * furnished to do so, subject to the following conditions:
- *
- * The above copyright notice and this permission notice shall be included in
- * all copies or substantial portions of the Software.
- *
- * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
- * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
- * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
- * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
- * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
- * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
- * THE SOFTWARE.
- */
-package dawg;
-
-import java.util.HashMap;
-import java.util.Map;
-import java.util.TreeSet;
-
-/**
- *
- * @author Андрей
- */
-public class Register {
-    private final Map<AutoState, Integer> stateRegister;
-    private final Map<Integer, AutoState> stateIndex;
-    private final TreeSet<Integer> discarded;
-    
-    public Register() {
-        this.stateRegister = new HashMap<>();
-        this.stateIndex = new HashMap<>();
-        this.discarded = new TreeSet<>();
-    }
-    
-    public void add(int state, AutoState wrapper) {
-        stateRegister.put(wrapper, state);
-        stateIndex.put(state, wrapper);
-    }
-    
-    public void remove(int state) {
-        AutoState wrapper = stateIndex.remove(state);
-        stateIndex.remove(state);
-        stateRegister.remove(wrapper);        
-    }
-    
-    public void discard(int state) {
-        discarded.add(state);
-    }
-    
-    public Integer nextDiscarded() {
-        return discarded.pollFirst();
-    }
-        
-    public int discardedStatesCount() {
-        return discarded.size();
-    }
-    
-    public int get(int state, AutoState wrapper) {
-        AutoState old = stateIndex.get(state);
-        
-        if (old != null) {
-            return state;
-        } else {        
-            Integer other = stateRegister.get(wrapper);
-            
-            if (other != null) {
-                return other;
-            } else {
-                return -1;
-            }
-        }
-    }
-    
-}
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Register of unique states used for minimization. States are kept by index
+ * in an open addressing hash table, content hashes are computed once when a
+ * state is registered and discarded slots are kept on an int stack, so
+ * lookups neither box indices nor allocate map entries.
+ *
+ * @author Андрей
+ */
+public class Register {
+    private static final int EMPTY = -1;
+    
+    private final List<AutoState> states;
+    private int[] table;
+    private int[] hashes;
+    private boolean[] registered;
+    private int size;
+    private int[] discarded;
+    private int discardedCount;
+    
+    public Register(List<AutoState> states) {
+        this.states = states;
+        this.table = new int[64];
+        this.hashes = new int[64];
+        this.registered = new boolean[64];
+        this.size = 0;
+        this.discarded = new int[16];
+        this.discardedCount = 0;
+        
+        Arrays.fill(table, EMPTY);
+    }
+    
+    public void add(int state, AutoState wrapper) {
+        if (state >= registered.length) {
+            int length = Math.max(state + 1, registered.length * 2);
+            hashes = Arrays.copyOf(hashes, length);
+            registered = Arrays.copyOf(registered, length);
+        }
+        
+        if ((size + 1) * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        
+        int hash = hash(wrapper);
+        hashes[state] = hash;
+        registered[state] = true;
+        insert(state, hash);
+        size++;
+    }
+    
+    public void remove(int state) {
+        if (!isRegistered(state)) {
+            return;
+        }
+        
+        int mask = table.length - 1;
+        int slot = hashes[state] & mask;
+        
+        while (table[slot] != state) {
+            slot = (slot + 1) & mask;
+        }
+        
+        // Backward shift deletion keeps probe sequences intact without tombstones
+        int next = (slot + 1) & mask;
+        
+        while (table[next] != EMPTY) {
+            int home = hashes[table[next]] & mask;
+            
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                table[slot] = table[next];
+                slot = next;
+            }
+            
+            next = (next + 1) & mask;
+        }
+        
+        table[slot] = EMPTY;
+        registered[state] = false;
+        size--;
+    }
+    
+    /**
+     * Forgets all registered and discarded states.
+     */
+    public void clear() {
+        table = new int[64];
+        hashes = new int[64];
+        registered = new boolean[64];
+        size = 0;
+        discardedCount = 0;
+        
+        Arrays.fill(table, EMPTY);
+    }
+    
+    public void discard(int state) {
+        if (discardedCount == discarded.length) {
+            discarded = Arrays.copyOf(discarded, discardedCount * 2);
+        }
+        
+        discarded[discardedCount++] = state;
+    }
+    
+    /**
+     * @return index of a discarded state which can be reused or -1 if there is none
+     */
+    public int nextDiscarded() {
+        if (discardedCount == 0) {
+            return -1;
+        } else {
+            return discarded[--discardedCount];
+        }
+    }
+        
+    public int discardedStatesCount() {
+        return discardedCount;
+    }
+    
+    public int get(int state, AutoState wrapper) {
+        if (isRegistered(state)) {
+            return state;
+        }
+        
+        int hash = hash(wrapper);
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        
+        while (table[slot] != EMPTY) {
+            int other = table[slot];
+            
+            if (hashes[other] == hash && wrapper.equals(states.get(other))) {
+                return other;
+            }
+            
+            slot = (slot + 1) & mask;
+        }
+        
+        return -1;
+    }
+    
+    private boolean isRegistered(int state) {
+        return state < registered.length && registered[state];
+    }
+    
+    private void insert(int state, int hash) {
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        
+        while (table[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        
+        table[slot] = state;
+    }
+    
+    private void rehash(int length) {
+        int[] old = table;
+        table = new int[length];
+        Arrays.fill(table, EMPTY);
+        
+        for (int state : old) {
+            if (state != EMPTY) {
+                insert(state, hashes[state]);
+            }
+        }
+    }
+    
+    private static int hash(AutoState wrapper) {
+        int hash = wrapper.value() * 31 + (wrapper.isTerminal() ? 1 : 0);
+        hash = hash * 31 + (int) (wrapper.output() ^ (wrapper.output() >>> 32));
+        
+        for (int i = 0; i < wrapper.transitionCount(); i++) {
+            hash = hash * 31 + wrapper.key(i);
+            hash = hash * 31 + wrapper.target(i);
+        }
+        
+        // Spread the bits since the table index is taken from the low ones
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        
+        return hash;
+    }
+    
+}
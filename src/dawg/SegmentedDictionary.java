@@ -0,0 +1,308 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only dictionary kept off heap in a sequence of byte buffers, so
+ * that neither the file nor any of its arrays is limited to 2G bytes or
+ * elements and the heap footprint does not grow with the dictionary.
+ * Positions are longs split into a segment index and an offset within the
+ * segment. Every array starts aligned to its element size and segments are
+ * a power of two long, so no element crosses a segment boundary. States
+ * are still numbered by int like in every other dictionary.
+ *
+ * @author hedge
+ */
+public class SegmentedDictionary extends AbstractDictionary {
+    public static final int MAGIC = 0x44415753;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 24;
+    public static final int VALUES = 1;
+    public static final int REVERSED = 2;
+    public static final int WEIGHTED = 4;
+    
+    static final int SEGMENT_BITS = 30;
+    
+    private final ByteBuffer[] segments;
+    private final int shift;
+    private final long mask;
+    private final int stateCount;
+    private final long valuesStart;
+    private final long offsetsStart;
+    private final long terminalsStart;
+    private final long targetsStart;
+    private final long keysStart;
+    
+    protected SegmentedDictionary(ByteBuffer[] segments, int segmentBits) throws IOException {
+        this.segments = segments;
+        this.shift = segmentBits;
+        this.mask = (1L << segmentBits) - 1;
+        
+        if (getInt(0) != MAGIC || getInt(4) != VERSION) {
+            throw new IOException("Not a segmented dictionary file");
+        }
+        
+        stateCount = getInt(8);
+        int flags = getInt(12);
+        long transitionCount = getLong(16);
+        long position = HEADER_SIZE;
+        reversed = (flags & REVERSED) != 0;
+        weighted = (flags & WEIGHTED) != 0;
+        
+        if ((flags & VALUES) != 0) {
+            valuesStart = position;
+            position += stateCount * 8L;
+        } else {
+            valuesStart = -1;
+        }
+        
+        offsetsStart = position;
+        position += (stateCount + 1) * 8L;
+        
+        terminalsStart = position;
+        position += MappedDictionary.terminalWords(stateCount) * 4L;
+        
+        targetsStart = position;
+        position += transitionCount * 4;
+        
+        keysStart = position;
+    }
+    
+    private int getInt(long position) {
+        return segments[(int) (position >>> shift)].getInt((int) (position & mask));
+    }
+    
+    private long getLong(long position) {
+        return segments[(int) (position >>> shift)].getLong((int) (position & mask));
+    }
+    
+    private char getChar(long position) {
+        return segments[(int) (position >>> shift)].getChar((int) (position & mask));
+    }
+    
+    private long offset(int state) {
+        return getLong(offsetsStart + state * 8L);
+    }
+    
+    @Override
+    public int stateCount() {
+        return stateCount;
+    }
+    
+    @Override
+    protected int getTransition(int state, char value) {
+        long low = offset(state);
+        long high = offset(state + 1) - 1;
+        
+        while (low <= high) {
+            long middle = (low + high) >>> 1;
+            char key = getChar(keysStart + middle * 2);
+            
+            if (key < value) {
+                low = middle + 1;
+            } else if (key > value) {
+                high = middle - 1;
+            } else {
+                return getInt(targetsStart + middle * 4);
+            }
+        }
+        
+        return -1;
+    }
+    
+    @Override
+    public boolean hasValues() {
+        return valuesStart != -1;
+    }
+    
+    @Override
+    protected long output(int state) {
+        return valuesStart == -1 ? 0 : getLong(valuesStart + state * 8L);
+    }
+    
+    @Override
+    protected boolean isFinal(int state) {
+        return (getInt(terminalsStart + (state >>> 5) * 4L) & (1 << (state & 31))) != 0;
+    }
+    
+    @Override
+    protected int transitionCount(int state) {
+        return (int) (offset(state + 1) - offset(state));
+    }
+    
+    @Override
+    protected char getKey(int state, int index) {
+        return getChar(keysStart + (offset(state) + index) * 2);
+    }
+    
+    @Override
+    protected int getTarget(int state, int index) {
+        return getInt(targetsStart + (offset(state) + index) * 4);
+    }
+    
+    /**
+     * Writes states of any dictionary reachable from the root in depth-first
+     * order in the layout read by map and load.
+     */
+    public static void save(AbstractDictionary source, OutputStream stream) throws IOException {
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(stream));
+        int[] order = source.depthFirstOrder();
+        int count = order.length;
+        int[] position = new int[source.stateCount()];
+        long transitionCount = 0;
+        
+        for (int i = 0; i < count; i++) {
+            position[order[i]] = i;
+            transitionCount += source.transitionCount(order[i]);
+        }
+        
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeInt(count);
+        output.writeInt((source.hasValues() ? VALUES : 0) | (source.reversed ? REVERSED : 0) | (source.weighted ? WEIGHTED : 0));
+        output.writeLong(transitionCount);
+        
+        if (source.hasValues()) {
+            for (int state : order) {
+                output.writeLong(source.output(state));
+            }
+        }
+        
+        long offset = 0;
+        
+        for (int state : order) {
+            output.writeLong(offset);
+            offset += source.transitionCount(state);
+        }
+        
+        output.writeLong(offset);
+        
+        for (int i = 0; i < MappedDictionary.terminalWords(count); i++) {
+            int word = 0;
+            
+            for (int bit = 0; bit < 32 && (i << 5) + bit < count; bit++) {
+                if (source.isFinal(order[(i << 5) + bit])) {
+                    word |= 1 << bit;
+                }
+            }
+            
+            output.writeInt(word);
+        }
+        
+        for (int state : order) {
+            for (int i = 0; i < source.transitionCount(state); i++) {
+                output.writeInt(position[source.getTarget(state, i)]);
+            }
+        }
+        
+        for (int state : order) {
+            for (int i = 0; i < source.transitionCount(state); i++) {
+                output.writeChar(source.getKey(state, i));
+            }
+        }
+        
+        output.flush();
+    }
+    
+    /**
+     * Maps the file into memory one segment at a time, pages are read on
+     * demand and shared with other processes through the page cache.
+     */
+    public static SegmentedDictionary map(Path path) throws IOException {
+        return map(path, SEGMENT_BITS);
+    }
+    
+    static SegmentedDictionary map(Path path, int segmentBits) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long segmentSize = 1L << segmentBits;
+            ByteBuffer[] segments = new ByteBuffer[(int) ((size + segmentSize - 1) >>> segmentBits)];
+            
+            for (int i = 0; i < segments.length; i++) {
+                long start = (long) i << segmentBits;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(segmentSize, size - start));
+            }
+            
+            return new SegmentedDictionary(segments, segmentBits);
+        }
+    }
+    
+    /**
+     * Reads the file written by save into direct buffers allocated outside
+     * of the heap.
+     */
+    public static SegmentedDictionary load(InputStream stream) throws IOException {
+        return load(stream, SEGMENT_BITS);
+    }
+    
+    static SegmentedDictionary load(InputStream stream, int segmentBits) throws IOException {
+        DataInputStream input = new DataInputStream(stream);
+        byte[] header = new byte[HEADER_SIZE];
+        input.readFully(header);
+        ByteBuffer buffer = ByteBuffer.wrap(header);
+        
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a segmented dictionary file");
+        }
+        
+        int stateCount = buffer.getInt(8);
+        long size = HEADER_SIZE + ((buffer.getInt(12) & VALUES) != 0 ? stateCount * 8L : 0) 
+                + (stateCount + 1) * 8L + MappedDictionary.terminalWords(stateCount) * 4L + buffer.getLong(16) * 6;
+        long segmentSize = 1L << segmentBits;
+        ByteBuffer[] segments = new ByteBuffer[(int) ((size + segmentSize - 1) >>> segmentBits)];
+        byte[] chunk = new byte[(int) Math.min(segmentSize, 1 << 16)];
+        
+        for (int i = 0; i < segments.length; i++) {
+            long start = (long) i << segmentBits;
+            ByteBuffer segment = ByteBuffer.allocateDirect((int) Math.min(segmentSize, size - start));
+            
+            if (i == 0) {
+                segment.put(header);
+            }
+            
+            while (segment.hasRemaining()) {
+                int length = Math.min(chunk.length, segment.remaining());
+                input.readFully(chunk, 0, length);
+                segment.put(chunk, 0, length);
+            }
+            
+            segment.clear();
+            segments[i] = segment;
+        }
+        
+        return new SegmentedDictionary(segments, segmentBits);
+    }
+    
+}
@@ -0,0 +1,165 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * List of automaton states kept in fixed size chunks. A snapshot shares all
+ * chunks with the list, which copies a chunk before changing it for the
+ * first time after the snapshot, so snapshots never change and only the
+ * chunks touched are ever copied.
+ *
+ * @author hedge
+ */
+class StateList extends AbstractList<AutoState> implements RandomAccess {
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    
+    private final boolean frozen;
+    private AutoState[][] chunks;
+    private boolean[] owned;
+    private int size;
+    
+    StateList() {
+        this.frozen = false;
+        this.chunks = new AutoState[16][];
+        this.owned = new boolean[16];
+        this.size = 0;
+    }
+    
+    private StateList(AutoState[][] chunks, int size) {
+        this.frozen = true;
+        this.chunks = chunks;
+        this.owned = new boolean[0];
+        this.size = size;
+    }
+    
+    /**
+     * @return read-only list with the current contents
+     */
+    StateList snapshot() {
+        Arrays.fill(owned, false);
+        return new StateList(Arrays.copyOf(chunks, (size + CHUNK_MASK) >>> CHUNK_BITS), size);
+    }
+    
+    @Override
+    public AutoState get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        
+        return chunks[index >>> CHUNK_BITS][index & CHUNK_MASK];
+    }
+    
+    @Override
+    public AutoState set(int index, AutoState state) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        
+        AutoState[] chunk = writableChunk(index >>> CHUNK_BITS);
+        AutoState old = chunk[index & CHUNK_MASK];
+        chunk[index & CHUNK_MASK] = state;
+        
+        return old;
+    }
+    
+    @Override
+    public boolean add(AutoState state) {
+        int chunk = size >>> CHUNK_BITS;
+        
+        if (chunk == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunks.length * 2);
+            owned = Arrays.copyOf(owned, chunks.length);
+        }
+        
+        if (chunks[chunk] == null) {
+            chunks[chunk] = new AutoState[CHUNK_SIZE];
+            owned[chunk] = true;
+        }
+        
+        writableChunk(chunk)[size & CHUNK_MASK] = state;
+        size++;
+        modCount++;
+        
+        return true;
+    }
+    
+    @Override
+    public void add(int index, AutoState state) {
+        if (index != size) {
+            throw new UnsupportedOperationException("States can only be appended");
+        }
+        
+        add(state);
+    }
+    
+    @Override
+    public AutoState remove(int index) {
+        if (index != size - 1) {
+            throw new UnsupportedOperationException("Only the last state can be removed");
+        }
+        
+        AutoState old = set(index, null);
+        size--;
+        modCount++;
+        
+        return old;
+    }
+    
+    @Override
+    public void clear() {
+        if (frozen) {
+            throw new UnsupportedOperationException("Snapshot is read-only");
+        }
+        
+        chunks = new AutoState[16][];
+        owned = new boolean[16];
+        size = 0;
+        modCount++;
+    }
+    
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    private AutoState[] writableChunk(int chunk) {
+        if (frozen) {
+            throw new UnsupportedOperationException("Snapshot is read-only");
+        }
+        
+        if (!owned[chunk]) {
+            chunks[chunk] = chunks[chunk].clone();
+            owned[chunk] = true;
+        }
+        
+        return chunks[chunk];
+    }
+    
+}
@@ -0,0 +1,270 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Reads the binary format written by Automaton.save one state at a time.
+ * The first byte holds format flags, so files written before flags existed
+ * (a single editable boolean) are read as they are. A first byte equal to
+ * COMPACT_MAGIC marks the compact format written by CompactWriter.
+ *
+ * @author hedge
+ */
+class StateReader {
+    static final int EDITABLE = 1;
+    static final int NUMBERED = 2;
+    static final int VALUES = 4;
+    static final int REVERSED = 8;
+    static final int WEIGHTED = 16;
+    // Word counts are written as longs, files without the flag hold ints
+    static final int LONG_COUNTS = 32;
+    
+    static final int COMPACT_MAGIC = 0xDA;
+    static final int COMPACT_VERSION = 2;
+    
+    private static final int KNOWN_FLAGS = EDITABLE | NUMBERED | VALUES | REVERSED | WEIGHTED | LONG_COUNTS;
+    
+    private final DataInputStream input;
+    private final int flags;
+    private final int stateCount;
+    private final boolean compact;
+    private char[] alphabet;
+    private BitSet finals;
+    private int index;
+    
+    private boolean terminal;
+    private short inboundCount;
+    private char value;
+    private long count;
+    private long weight;
+    private long output;
+    private int transitionCount;
+    private char[] keys;
+    private int[] targets;
+    
+    StateReader(InputStream stream) throws IOException {
+        this.input = new DataInputStream(stream);
+        int first = input.readUnsignedByte();
+        this.compact = first == COMPACT_MAGIC;
+        
+        if (compact) {
+            int version = input.readUnsignedByte();
+            
+            if (version != COMPACT_VERSION) {
+                throw new IOException("Unsupported compact format version: " + version);
+            }
+            
+            first = input.readUnsignedByte();
+        }
+        
+        this.flags = first;
+        
+        if ((flags & ~KNOWN_FLAGS) != 0 || compact && hasFlag(EDITABLE)) {
+            throw new IOException("Unsupported binary format flags: " + flags);
+        }
+        
+        if (compact) {
+            this.stateCount = (int) readVarLong();
+            this.alphabet = new char[(int) readVarLong()];
+            
+            for (int i = 0, key = 0; i < alphabet.length; i++) {
+                key += readVarLong();
+                alphabet[i] = (char) key;
+            }
+            
+            this.finals = new BitSet(stateCount);
+            finals.set(0, input.readBoolean());
+        } else {
+            this.stateCount = input.readInt();
+        }
+        
+        this.index = 0;
+        this.keys = new char[16];
+        this.targets = new int[16];
+    }
+    
+    boolean hasFlag(int flag) {
+        return (flags & flag) != 0;
+    }
+    
+    int stateCount() {
+        return stateCount;
+    }
+    
+    boolean hasNext() {
+        return index < stateCount;
+    }
+    
+    /**
+     * Reads next state, its fields remain available until the next call.
+     */
+    void next() throws IOException {
+        if (compact) {
+            nextCompact();
+            return;
+        }
+        
+        terminal = input.readBoolean();
+        transitionCount = input.readShort();
+        
+        if (hasFlag(EDITABLE)) {
+            inboundCount = input.readShort();
+            value = input.readChar();
+        }
+        
+        if (hasFlag(NUMBERED)) {
+            count = hasFlag(LONG_COUNTS) ? input.readLong() : input.readInt();
+        }
+        
+        weight = hasFlag(WEIGHTED) ? input.readLong() : 0;
+        
+        output = terminal && hasFlag(VALUES) ? input.readLong() : 0;
+        
+        if (transitionCount > keys.length) {
+            keys = new char[Math.max(transitionCount, keys.length * 2)];
+            targets = new int[keys.length];
+        }
+        
+        for (int i = 0; i < transitionCount; i++) {
+            keys[i] = input.readChar();
+            targets[i] = input.readInt();
+        }
+        
+        index++;
+    }
+    
+    private void nextCompact() throws IOException {
+        // Finality is carried by incoming edges, which precede the state in depth-first order
+        terminal = finals.get(index);
+        count = hasFlag(NUMBERED) ? readVarLong() : 0;
+        
+        if (hasFlag(WEIGHTED)) {
+            long value = readVarLong();
+            weight = (value >>> 1) ^ -(value & 1);
+        } else {
+            weight = 0;
+        }
+        
+        if (terminal && hasFlag(VALUES)) {
+            long value = readVarLong();
+            output = (value >>> 1) ^ -(value & 1);
+        } else {
+            output = 0;
+        }
+        
+        transitionCount = 0;
+        long code = readVarLong();
+        int symbol = -1;
+        
+        while (code != 0) {
+            if (transitionCount == keys.length) {
+                keys = Arrays.copyOf(keys, keys.length * 2);
+                targets = Arrays.copyOf(targets, keys.length);
+            }
+            
+            symbol += (int) (code >>> CompactWriter.FLAG_BITS);
+            keys[transitionCount] = alphabet[symbol];
+            
+            if ((code & CompactWriter.NEXT) != 0) {
+                targets[transitionCount] = index + 1;
+            } else {
+                long delta = readVarLong();
+                targets[transitionCount] = index + (int) ((delta >>> 1) ^ -(delta & 1));
+            }
+            
+            if ((code & CompactWriter.FINAL) != 0) {
+                finals.set(targets[transitionCount]);
+            }
+            
+            transitionCount++;
+            code = (code & CompactWriter.LAST) != 0 ? 0 : readVarLong();
+        }
+        
+        index++;
+    }
+    
+    private long readVarLong() throws IOException {
+        long value = 0;
+        
+        for (int shift = 0; ; shift += 7) {
+            int b = input.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+    
+    boolean isTerminal() {
+        return terminal;
+    }
+    
+    short inboundCount() {
+        return inboundCount;
+    }
+    
+    char value() {
+        return value;
+    }
+    
+    long count() {
+        return count;
+    }
+    
+    long weight() {
+        return weight;
+    }
+    
+    long output() {
+        return output;
+    }
+    
+    int transitionCount() {
+        return transitionCount;
+    }
+    
+    char key(int index) {
+        return keys[index];
+    }
+    
+    int target(int index) {
+        return targets[index];
+    }
+    
+    char[] keyArray() {
+        return Arrays.copyOf(keys, transitionCount);
+    }
+    
+    int[] transitionArray() {
+        return Arrays.copyOf(targets, transitionCount);
+    }
+    
+}
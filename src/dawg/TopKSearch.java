@@ -0,0 +1,149 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Finds entries with the greatest values below a state. Candidates are
+ * taken best first by the greatest value reachable from them, so a branch
+ * is expanded only if it can still hold one of the first k entries.
+ * Entries of equal value come out in lexicographic order. A candidate
+ * keeps its parent and last key instead of its text, which is built only
+ * for the entries collected.
+ *
+ * @author hedge
+ */
+class TopKSearch {
+    private static final Comparator<Candidate> ORDER = new Comparator<Candidate>() {
+        @Override
+        public int compare(Candidate a, Candidate b) {
+            int result = Long.compare(b.weight, a.weight);
+            return result != 0 ? result : compareText(a, b);
+        }
+    };
+    
+    private final AbstractDictionary dictionary;
+    private final long[] weights;
+    
+    TopKSearch(AbstractDictionary dictionary) {
+        this.dictionary = dictionary;
+        this.weights = dictionary.weights();
+    }
+    
+    void search(int state, String prefix, int k, ICollector collector) {
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(Math.max(16, k), ORDER);
+        queue.add(new Candidate(state, null, '\0', 0, weights[state]));
+        int found = 0;
+        WalkStats stats = new WalkStats();
+        
+        while (found < k && !queue.isEmpty()) {
+            Candidate candidate = queue.poll();
+            
+            // An entry goes before any candidate extending it, their text is greater
+            if (candidate.state == -1) {
+                collector.collect(text(prefix, candidate));
+                found++;
+                stats.entry(candidate.depth);
+                continue;
+            }
+            
+            int current = candidate.state;
+            
+            if (dictionary.isFinal(current)) {
+                queue.add(new Candidate(-1, candidate.parent, candidate.key, candidate.depth, dictionary.output(current)));
+            }
+            
+            for (int i = 0; i < dictionary.transitionCount(current); i++) {
+                int target = dictionary.getTarget(current, i);
+                queue.add(new Candidate(target, candidate, dictionary.getKey(current, i), candidate.depth + 1, weights[target]));
+            }
+            
+            stats.transitions(dictionary.transitionCount(current));
+        }
+        
+        stats.report(dictionary);
+    }
+    
+    private static String text(String prefix, Candidate candidate) {
+        char[] text = new char[prefix.length() + candidate.depth];
+        prefix.getChars(0, prefix.length(), text, 0);
+        
+        for (Candidate c = candidate; c.depth > 0; c = c.parent) {
+            text[prefix.length() + c.depth - 1] = c.key;
+        }
+        
+        return new String(text);
+    }
+    
+    /**
+     * Compares texts of candidates by walking both chains up to the point
+     * where they branch off, all chains start at the same candidate.
+     */
+    private static int compareText(Candidate a, Candidate b) {
+        int result = Integer.compare(a.depth, b.depth);
+        
+        while (a.depth > b.depth) {
+            a = a.parent;
+        }
+        
+        while (b.depth > a.depth) {
+            b = b.parent;
+        }
+        
+        while (a != b) {
+            if (a.parent == b.parent) {
+                return a.key != b.key ? Character.compare(a.key, b.key) : result;
+            }
+            
+            a = a.parent;
+            b = b.parent;
+        }
+        
+        // One text is a prefix of the other, the shorter goes first
+        return result;
+    }
+    
+    /**
+     * Either a state to expand or, with state -1, an entry to report. An
+     * entry shares parent and key with the state it was found in.
+     */
+    private static class Candidate {
+        final int state;
+        final Candidate parent;
+        final char key;
+        final int depth;
+        final long weight;
+        
+        Candidate(int state, Candidate parent, char key, int depth, long weight) {
+            this.state = state;
+            this.parent = parent;
+            this.key = key;
+            this.depth = depth;
+            this.weight = weight;
+        }
+    }
+    
+}
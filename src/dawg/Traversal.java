@@ -0,0 +1,111 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.util.Arrays;
+
+/**
+ * Depth-first walk over all entries below a state in lexicographic order.
+ * Uses an explicit stack and a single path buffer, so it neither recurses
+ * nor creates strings while walking.
+ *
+ * @author hedge
+ */
+class Traversal {
+    private final AbstractDictionary dictionary;
+    private int[] stateStack;
+    private int[] indexStack;
+    private char[] buffer;
+    private int depth;
+    private final WalkStats stats = new WalkStats();
+    
+    Traversal(AbstractDictionary dictionary, int state) {
+        this.dictionary = dictionary;
+        this.stateStack = new int[16];
+        this.indexStack = new int[16];
+        this.buffer = new char[16];
+        this.depth = 0;
+        
+        stateStack[0] = state;
+        indexStack[0] = -1;
+    }
+    
+    /**
+     * Moves to the next terminal state.
+     * 
+     * @return false if there are no more entries
+     */
+    boolean next() {
+        while (depth >= 0) {
+            int state = stateStack[depth];
+            int index = indexStack[depth];
+            
+            if (index == -1) {
+                indexStack[depth] = 0;
+                
+                if (dictionary.isFinal(state)) {
+                    stats.entry(depth);
+                    return true;
+                }
+            } else if (index < dictionary.transitionCount(state)) {
+                indexStack[depth] = index + 1;
+                
+                if (depth + 1 == stateStack.length) {
+                    stateStack = Arrays.copyOf(stateStack, stateStack.length * 2);
+                    indexStack = Arrays.copyOf(indexStack, indexStack.length * 2);
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                
+                buffer[depth] = dictionary.getKey(state, index);
+                depth++;
+                stats.transitions(1);
+                stateStack[depth] = dictionary.getTarget(state, index);
+                indexStack[depth] = -1;
+            } else {
+                depth--;
+            }
+        }
+        
+        return false;
+    }
+    
+    /**
+     * @return characters leading from the start state to the current one
+     */
+    char[] buffer() {
+        return buffer;
+    }
+    
+    int length() {
+        return depth;
+    }
+    
+    /**
+     * Reports the walk so far to the listener of the dictionary, if any.
+     */
+    void report() {
+        stats.report(dictionary);
+    }
+    
+}
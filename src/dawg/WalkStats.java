@@ -0,0 +1,59 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+/**
+ * Counts gathered during one walk over a dictionary and reported to its
+ * listener at the end. Walks count unconditionally, which is cheaper
+ * than checking for a listener at every step.
+ *
+ * @author hedge
+ */
+final class WalkStats {
+    private int transitions;
+    private int entries;
+    private int maxDepth;
+    
+    void transitions(int count) {
+        transitions += count;
+    }
+    
+    /**
+     * Counts an entry found at the given depth.
+     */
+    void entry(int depth) {
+        entries++;
+        maxDepth = Math.max(maxDepth, depth);
+    }
+    
+    /**
+     * Reports the counts so far to the listener of the dictionary, if any.
+     */
+    void report(AbstractDictionary dictionary) {
+        if (dictionary.listener != null) {
+            dictionary.listener.traversal(transitions, entries, maxDepth);
+        }
+    }
+    
+}
@@ -0,0 +1,360 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Glob-like pattern compiled into a small nondeterministic automaton, whose
+ * set of active positions is kept in a bit mask. Supported syntax:
+ * ? - any character, * - any sequence of characters, [abc], [a-z] and
+ * [^a-z] - character classes, \ - escapes the next character. Pattern
+ * matches whole entries, a trailing $ is accepted and means the same.
+ *
+ * @author hedge
+ */
+class WildcardPattern {
+    private static final int LITERAL = 0;
+    private static final int ANY = 1;
+    private static final int STAR = 2;
+    private static final int CLASS = 3;
+    
+    private final int[] types;
+    private final char[][] lows;
+    private final char[][] highs;
+    private final boolean[] negated;
+    private final int length;
+    
+    private WildcardPattern(List<Integer> types, List<char[]> lows, List<char[]> highs, List<Boolean> negated) {
+        this.length = types.size();
+        this.types = new int[length];
+        this.lows = new char[length][];
+        this.highs = new char[length][];
+        this.negated = new boolean[length];
+        
+        for (int i = 0; i < length; i++) {
+            this.types[i] = types.get(i);
+            this.lows[i] = lows.get(i);
+            this.highs[i] = highs.get(i);
+            this.negated[i] = negated.get(i);
+        }
+    }
+    
+    static WildcardPattern compile(String pattern) {
+        List<Integer> types = new ArrayList<>();
+        List<char[]> lows = new ArrayList<>();
+        List<char[]> highs = new ArrayList<>();
+        List<Boolean> negated = new ArrayList<>();
+        int i = 0;
+        
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i++);
+            
+            if (c == '$' && i == pattern.length()) {
+                break;
+            } else if (c == '?' || c == '*') {
+                types.add(c == '?' ? ANY : STAR);
+                lows.add(null);
+                highs.add(null);
+                negated.add(false);
+            } else if (c == '[') {
+                boolean negation = i < pattern.length() && (pattern.charAt(i) == '^' || pattern.charAt(i) == '!');
+                StringBuilder low = new StringBuilder();
+                StringBuilder high = new StringBuilder();
+                
+                if (negation) {
+                    i++;
+                }
+                
+                while (i < pattern.length() && pattern.charAt(i) != ']') {
+                    char from = pattern.charAt(i++);
+                    
+                    if (from == '\\' && i < pattern.length()) {
+                        from = pattern.charAt(i++);
+                    }
+                    
+                    char to = from;
+                    
+                    if (i + 1 < pattern.length() && pattern.charAt(i) == '-' && pattern.charAt(i + 1) != ']') {
+                        to = pattern.charAt(i + 1);
+                        i += 2;
+                        
+                        if (to == '\\' && i < pattern.length()) {
+                            to = pattern.charAt(i++);
+                        }
+                    }
+                    
+                    if (to < from) {
+                        throw new IllegalArgumentException("Invalid range " + from + "-" + to + " in pattern: " + pattern);
+                    }
+                    
+                    low.append(from);
+                    high.append(to);
+                }
+                
+                if (i == pattern.length()) {
+                    throw new IllegalArgumentException("Unclosed character class in pattern: " + pattern);
+                }
+                
+                i++;
+                types.add(CLASS);
+                lows.add(low.toString().toCharArray());
+                highs.add(high.toString().toCharArray());
+                negated.add(negation);
+            } else {
+                if (c == '\\' && i < pattern.length()) {
+                    c = pattern.charAt(i++);
+                }
+                
+                types.add(LITERAL);
+                lows.add(new char[] { c });
+                highs.add(new char[] { c });
+                negated.add(false);
+            }
+        }
+        
+        if (types.size() > 62) {
+            throw new IllegalArgumentException("Pattern is too long: " + pattern);
+        }
+        
+        return new WildcardPattern(types, lows, highs, negated);
+    }
+    
+    /**
+     * Walks the dictionary in lockstep with the pattern, visiting only
+     * transitions which keep some pattern position active. Collects
+     * matching entries in lexicographic order.
+     */
+    void search(AbstractDictionary dictionary, ICollector collector) {
+        // Pending transitions, children are pushed in reverse order so they pop in lexicographic order
+        int[] states = new int[16];
+        int[] depths = new int[16];
+        long[] masks = new long[16];
+        char[] keys = new char[16];
+        char[] buffer = new char[16];
+        int size = 1;
+        masks[0] = start();
+        WalkStats stats = new WalkStats();
+        
+        while (size > 0) {
+            size--;
+            int state = states[size];
+            int depth = depths[size];
+            long mask = masks[size];
+            
+            if (depth > 0) {
+                stats.transitions(1);
+                
+                if (depth > buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                
+                buffer[depth - 1] = keys[size];
+            }
+            
+            if (accepts(mask) && dictionary.isFinal(state)) {
+                collector.collect(new String(buffer, 0, depth));
+                stats.entry(depth);
+            }
+            
+            int count = dictionary.transitionCount(state);
+            
+            if (states.length < size + count) {
+                int capacity = Math.max(states.length * 2, size + count);
+                states = Arrays.copyOf(states, capacity);
+                depths = Arrays.copyOf(depths, capacity);
+                masks = Arrays.copyOf(masks, capacity);
+                keys = Arrays.copyOf(keys, capacity);
+            }
+            
+            int first = size;
+            
+            if (isOpen(mask)) {
+                for (int i = 0; i < count; i++) {
+                    char key = dictionary.getKey(state, i);
+                    long next = step(mask, key);
+                    
+                    if (next != 0) {
+                        states[size] = dictionary.getTarget(state, i);
+                        depths[size] = depth + 1;
+                        masks[size] = next;
+                        keys[size++] = key;
+                    }
+                }
+            } else {
+                // Only keys inside the ranges can match, a literal is a range of one key
+                char[] ranges = ranges(mask);
+                
+                for (int r = 0; r < ranges.length; r += 2) {
+                    for (int i = dictionary.lowerBound(state, ranges[r]); i < count; i++) {
+                        char key = dictionary.getKey(state, i);
+                        
+                        if (key > ranges[r + 1]) {
+                            break;
+                        }
+                        
+                        long next = step(mask, key);
+                        
+                        if (next != 0) {
+                            states[size] = dictionary.getTarget(state, i);
+                            depths[size] = depth + 1;
+                            masks[size] = next;
+                            keys[size++] = key;
+                        }
+                    }
+                }
+            }
+            
+            for (int i = first, j = size - 1; i < j; i++, j--) {
+                int swappedState = states[i];
+                states[i] = states[j];
+                states[j] = swappedState;
+                long swappedMask = masks[i];
+                masks[i] = masks[j];
+                masks[j] = swappedMask;
+                char swappedKey = keys[i];
+                keys[i] = keys[j];
+                keys[j] = swappedKey;
+            }
+        }
+        
+        stats.report(dictionary);
+    }
+    
+    /**
+     * @return positions active before any character is read
+     */
+    private long start() {
+        return closure(1L);
+    }
+    
+    private boolean accepts(long mask) {
+        return (mask & (1L << length)) != 0;
+    }
+    
+    /**
+     * @return positions active after reading given character, 0 if none
+     */
+    private long step(long mask, char c) {
+        long next = 0;
+        
+        for (int i = 0; i < length; i++) {
+            if ((mask & (1L << i)) != 0) {
+                if (types[i] == STAR) {
+                    next |= 1L << i;
+                } else if (types[i] == ANY || matches(i, c)) {
+                    next |= 1L << (i + 1);
+                }
+            }
+        }
+        
+        return closure(next);
+    }
+    
+    /**
+     * @return true if some active position accepts characters beyond
+     * literals and plain classes, so every transition has to be tried
+     */
+    private boolean isOpen(long mask) {
+        for (int i = 0; i < length; i++) {
+            if ((mask & (1L << i)) != 0 && (types[i] == STAR || types[i] == ANY || negated[i])) {
+                return true;
+            }
+        }
+        
+        return false;
+    }
+    
+    /**
+     * @return sorted, non-overlapping character ranges as pairs of low and
+     * high bounds which can move active positions forward
+     */
+    private char[] ranges(long mask) {
+        char[] result = new char[0];
+        
+        for (int i = 0; i < length; i++) {
+            if ((mask & (1L << i)) != 0 && lows[i] != null) {
+                for (int j = 0; j < lows[i].length; j++) {
+                    result = Arrays.copyOf(result, result.length + 2);
+                    result[result.length - 2] = lows[i][j];
+                    result[result.length - 1] = highs[i][j];
+                }
+            }
+        }
+        
+        return merge(result);
+    }
+    
+    private static char[] merge(char[] ranges) {
+        int count = ranges.length / 2;
+        
+        // Insertion sort by low bound, there are only a few ranges
+        for (int i = 1; i < count; i++) {
+            for (int j = i; j > 0 && ranges[2 * j] < ranges[2 * j - 2]; j--) {
+                char low = ranges[2 * j];
+                char high = ranges[2 * j + 1];
+                ranges[2 * j] = ranges[2 * j - 2];
+                ranges[2 * j + 1] = ranges[2 * j - 1];
+                ranges[2 * j - 2] = low;
+                ranges[2 * j - 1] = high;
+            }
+        }
+        
+        int size = 0;
+        
+        for (int i = 0; i < count; i++) {
+            if (size > 0 && ranges[2 * i] <= ranges[size - 1] + 1) {
+                ranges[size - 1] = (char) Math.max(ranges[size - 1], ranges[2 * i + 1]);
+            } else {
+                ranges[size++] = ranges[2 * i];
+                ranges[size++] = ranges[2 * i + 1];
+            }
+        }
+        
+        return Arrays.copyOf(ranges, size);
+    }
+    
+    private boolean matches(int position, char c) {
+        boolean found = false;
+        
+        for (int j = 0; j < lows[position].length && !found; j++) {
+            found = c >= lows[position][j] && c <= highs[position][j];
+        }
+        
+        return found != negated[position];
+    }
+    
+    private long closure(long mask) {
+        for (int i = 0; i < length; i++) {
+            if ((mask & (1L << i)) != 0 && types[i] == STAR) {
+                mask |= 1L << (i + 1);
+            }
+        }
+        
+        return mask;
+    }
+    
+}
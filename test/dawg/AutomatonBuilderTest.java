@@ -0,0 +1,128 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author hedge
+ */
+public class AutomatonBuilderTest {
+    
+    @Test
+    public void testSameAutomaton() {
+        String[] sorted = IntegrationTest.testArray.clone();
+        Arrays.sort(sorted);
+        
+        AutomatonBuilder builder = new AutomatonBuilder();
+        
+        for (String value : sorted) {
+            builder.add(value);
+        }
+        
+        Automaton auto = builder.build();
+        
+        // Incremental construction gives 23 states with 3 of them discarded
+        Assert.assertEquals(20, auto.stateCount() - auto.discardedCount());
+        Assert.assertEquals(IntegrationTest.testSet, new HashSet<>(auto.listSuffixes("")));
+    }
+    
+    @Test
+    public void testRandomWords() throws IOException {
+        Random random = new Random(7);
+        List<String> words = new ArrayList<>();
+        
+        for (int i = 0; i < 2000; i++) {
+            char[] word = new char[random.nextInt(8)];
+            
+            for (int j = 0; j < word.length; j++) {
+                word[j] = (char) ('a' + random.nextInt(5));
+            }
+            
+            words.add(new String(word));
+        }
+        
+        Automaton expected = new Automaton();
+        
+        for (String word : words) {
+            expected.add(word);
+        }
+        
+        Collections.sort(words);
+        AutomatonBuilder builder = new AutomatonBuilder();
+        
+        for (String word : words) {
+            builder.add(word);
+        }
+        
+        Automaton auto = builder.build();
+        
+        Assert.assertEquals(expected.stateCount() - expected.discardedCount(), auto.stateCount() - auto.discardedCount());
+        Assert.assertEquals(expected.listSuffixes(""), auto.listSuffixes(""));
+        
+        // Built automaton remains editable
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        auto.save(baos, true);
+        Automaton loaded = Automaton.load(new ByteArrayInputStream(baos.toByteArray()));
+        loaded.add("zz");
+        auto.add("zz");
+        
+        Assert.assertTrue(loaded.contains("zz"));
+        Assert.assertEquals(auto.listSuffixes(""), loaded.listSuffixes(""));
+    }
+    
+    @Test
+    public void testDuplicateThenPut() throws IOException {
+        AutomatonBuilder builder = new AutomatonBuilder();
+        builder.add("a");
+        builder.put("a", 7);
+        Automaton auto = builder.build();
+        
+        Assert.assertTrue(auto.hasValues());
+        
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        auto.save(baos, false);
+        Dictionary loaded = Dictionary.load(new ByteArrayInputStream(baos.toByteArray()));
+        
+        Assert.assertEquals(7, loaded.get("a", -1));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsortedInput() {
+        AutomatonBuilder builder = new AutomatonBuilder();
+        builder.add("abc");
+        builder.add("ab");
+    }
+}
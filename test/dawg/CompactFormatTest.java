@@ -0,0 +1,116 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author hedge
+ */
+public class CompactFormatTest {
+    
+    private static byte[] compact(Automaton auto) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        auto.saveCompact(baos);
+        return baos.toByteArray();
+    }
+    
+    @Test
+    public void testRoundTrip() throws IOException {
+        Automaton auto = new Automaton();
+        
+        for (String value : IntegrationTest.testArray) {
+            auto.add(value);
+        }
+        
+        auto.add("");
+        auto.add("\u0000\uffff");
+        byte[] bytes = compact(auto);
+        
+        for (AbstractDictionary dict : new AbstractDictionary[] {
+                Dictionary.load(new ByteArrayInputStream(bytes)), FlatDictionary.load(new ByteArrayInputStream(bytes)) }) {
+            Assert.assertEquals(auto.listSuffixes(""), dict.listSuffixes(""));
+            Assert.assertTrue(dict.contains(""));
+            Assert.assertTrue(dict.contains("\u0000\uffff"));
+            Assert.assertFalse(dict.contains("\u0000"));
+            Assert.assertFalse(dict.hasValues());
+        }
+    }
+    
+    @Test
+    public void testFlags() throws IOException {
+        Automaton auto = new Automaton(true);
+        auto.put("кот", -5);
+        auto.put("рот", Long.MAX_VALUE);
+        auto.put("ротик", 3);
+        auto.setNumbered(true);
+        
+        Dictionary dict = Dictionary.load(new ByteArrayInputStream(compact(auto)));
+        
+        Assert.assertTrue(dict.isReversed());
+        Assert.assertTrue(dict.counts != null);
+        Assert.assertEquals(-5, dict.get("кот", 0));
+        Assert.assertEquals(Long.MAX_VALUE, dict.get("рот", 0));
+        Assert.assertEquals(3, dict.get("ротик", 0));
+        Assert.assertEquals(auto.indexOf("тор"), dict.indexOf("тор"));
+    }
+    
+    @Test
+    public void testSize() throws IOException {
+        Random random = new Random(5);
+        Automaton auto = new Automaton();
+        HashSet<String> words = new HashSet<>();
+        
+        for (int i = 0; i < 20000; i++) {
+            char[] word = new char[3 + random.nextInt(8)];
+            
+            for (int j = 0; j < word.length; j++) {
+                word[j] = (char) ('а' + random.nextInt(20));
+            }
+            
+            words.add(new String(word));
+            auto.add(new String(word));
+        }
+        
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        auto.save(plain, false);
+        byte[] bytes = compact(auto);
+        
+        Assert.assertTrue(bytes.length * 2 < plain.size());
+        Assert.assertEquals(words, new HashSet<>(Dictionary.load(new ByteArrayInputStream(bytes)).listSuffixes("")));
+    }
+    
+    @Test(expected = IOException.class)
+    public void testNotEditable() throws IOException {
+        Automaton.load(new ByteArrayInputStream(compact(new Automaton())));
+    }
+    
+}
@@ -0,0 +1,122 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author hedge
+ */
+public class DictCursorTest {
+    
+    private static List<String> suffixes(DictCursor cursor) {
+        final List<String> result = new ArrayList<>();
+        
+        cursor.listSuffixes(new ICollector() {
+            @Override
+            public void collect(String value) {
+                result.add(value);
+            }
+        });
+        
+        return result;
+    }
+    
+    @Test
+    public void testNavigation() {
+        Automaton auto = new Automaton();
+        
+        for (String value : new String[] { "кот", "коты", "кит", "рот" }) {
+            auto.add(value);
+        }
+        
+        for (AbstractDictionary dict : new AbstractDictionary[] { auto, new FlatDictionary(auto) }) {
+            DictCursor cursor = dict.cursor();
+            
+            Assert.assertFalse(cursor.isTerminal());
+            Assert.assertTrue(cursor.hasChildren());
+            Assert.assertFalse(cursor.back());
+            
+            Assert.assertTrue(cursor.advance('к'));
+            Assert.assertTrue(cursor.advance('о'));
+            Assert.assertFalse(cursor.advance('и'));
+            Assert.assertEquals(2, cursor.depth());
+            Assert.assertEquals("ко", cursor.prefix());
+            Assert.assertEquals(Arrays.asList("т", "ты"), suffixes(cursor));
+            
+            Assert.assertTrue(cursor.advance('т'));
+            Assert.assertTrue(cursor.isTerminal());
+            Assert.assertEquals(Arrays.asList("", "ы"), suffixes(cursor));
+            
+            Assert.assertTrue(cursor.advance('ы'));
+            Assert.assertTrue(cursor.isTerminal());
+            Assert.assertFalse(cursor.hasChildren());
+            
+            Assert.assertTrue(cursor.back());
+            Assert.assertTrue(cursor.back());
+            Assert.assertTrue(cursor.back());
+            Assert.assertTrue(cursor.advance('и'));
+            Assert.assertEquals('и', cursor.charAt(1));
+            
+            cursor.reset();
+            Assert.assertEquals(0, cursor.depth());
+            Assert.assertTrue(cursor.advance('р'));
+        }
+    }
+    
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testNegativeIndex() {
+        Automaton auto = new Automaton();
+        auto.add("кот");
+        DictCursor cursor = auto.cursor();
+        cursor.advance('к');
+        cursor.charAt(-1);
+    }
+    
+    @Test
+    public void testDeepPath() {
+        StringBuilder word = new StringBuilder();
+        
+        for (int i = 0; i < 1000; i++) {
+            word.append((char) ('a' + i % 26));
+        }
+        
+        Automaton auto = new Automaton();
+        auto.add(word.toString());
+        DictCursor cursor = auto.cursor();
+        
+        for (int i = 0; i < word.length(); i++) {
+            Assert.assertTrue(cursor.advance(word.charAt(i)));
+        }
+        
+        Assert.assertTrue(cursor.isTerminal());
+        Assert.assertEquals(word.toString(), cursor.prefix());
+    }
+    
+}
@@ -0,0 +1,159 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author hedge
+ */
+public class FlatDictionaryTest {
+    
+    Automaton auto = new Automaton();
+    
+    @Before
+    public void initDictionary() {
+        for (String value : IntegrationTest.testArray) {
+            auto.add(value);
+        }
+    }
+    
+    @Test
+    public void testCopy() {
+        FlatDictionary dict = new FlatDictionary(auto);
+        
+        Assert.assertEquals(auto.stateCount(), dict.stateCount());
+        Assert.assertEquals(IntegrationTest.testSet, new HashSet<>(dict.listSuffixes("")));
+        Assert.assertEquals(auto.listSuffixes("0abc"), dict.listSuffixes("0abc"));
+        Assert.assertTrue(dict.contains("abc0xyz"));
+        Assert.assertFalse(dict.contains("abc0xy"));
+        Assert.assertFalse(dict.contains("abc1"));
+    }
+    
+    @Test
+    public void testDenseStates() {
+        Automaton wide = new Automaton();
+        String alphabet = "abcdefghijklmnopqrstuvwxyzабвгдеёжзийклмнопрстуфхцчшщъыьэюя0123456789";
+        
+        for (int i = 0; i < alphabet.length(); i++) {
+            for (int j = 0; j < alphabet.length(); j += 2) {
+                wide.add("" + alphabet.charAt(i) + alphabet.charAt(j));
+            }
+        }
+        
+        FlatDictionary dict = new FlatDictionary(wide);
+        
+        Assert.assertTrue(dict.denseCount > 1);
+        Assert.assertEquals(wide.listSuffixes(""), dict.listSuffixes(""));
+        
+        for (int i = 0; i < alphabet.length(); i++) {
+            for (int j = 0; j < alphabet.length(); j++) {
+                String value = "" + alphabet.charAt(i) + alphabet.charAt(j);
+                Assert.assertEquals(value, j % 2 == 0, dict.contains(value));
+                Assert.assertEquals(wide.indexOf(value), dict.indexOf(value));
+            }
+        }
+        
+        Assert.assertFalse(dict.contains("a!"));
+        Assert.assertFalse(dict.contains("a\uffff"));
+        Assert.assertFalse(dict.contains("\u0000a"));
+    }
+    
+    @Test
+    public void testDenseLoad() throws IOException {
+        Automaton wide = new Automaton();
+        wide.setNumbered(true);
+        String alphabet = "abcdefghijklmnopqrstuvwxyz0123456789";
+        
+        for (int i = 0; i < alphabet.length(); i++) {
+            for (int j = 0; j < alphabet.length(); j += i % 3 + 1) {
+                wide.put("" + alphabet.charAt(i) + alphabet.charAt(j), i * j);
+            }
+        }
+        
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        wide.save(baos, false);
+        
+        // Renumbering in place has to match the copy of the same states
+        FlatDictionary copied = new FlatDictionary(Dictionary.load(new ByteArrayInputStream(baos.toByteArray())));
+        FlatDictionary loaded = FlatDictionary.load(new ByteArrayInputStream(baos.toByteArray()));
+        
+        Assert.assertTrue(loaded.denseCount > 1);
+        Assert.assertEquals(copied.denseCount, loaded.denseCount);
+        Assert.assertArrayEquals(copied.offsets, loaded.offsets);
+        Assert.assertArrayEquals(copied.keys, loaded.keys);
+        Assert.assertArrayEquals(copied.targets, loaded.targets);
+        Assert.assertArrayEquals(copied.table, loaded.table);
+        Assert.assertEquals(copied.terminals, loaded.terminals);
+        Assert.assertArrayEquals(copied.counts, loaded.counts);
+        Assert.assertArrayEquals(copied.outputs, loaded.outputs);
+        Assert.assertEquals(wide.listSuffixes(""), loaded.listSuffixes(""));
+        Assert.assertEquals(6 * 7, loaded.get("gh", -1));
+    }
+    
+    @Test
+    public void testInputOutput() throws IOException {
+        for (boolean editable : new boolean[] { true, false }) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            auto.save(baos, editable);
+            
+            FlatDictionary dict = FlatDictionary.load(new ByteArrayInputStream(baos.toByteArray()));
+            
+            Assert.assertEquals(20, dict.stateCount());
+            Assert.assertEquals(IntegrationTest.testSet, new HashSet<>(dict.listSuffixes("")));
+            Assert.assertEquals(0, dict.listSuffixes("abc1").size());
+        }
+    }
+    
+    @Test
+    public void testMapping() throws IOException {
+        Path file = Files.createTempFile("dawg", ".bin");
+        
+        try {
+            try (OutputStream output = Files.newOutputStream(file)) {
+                new FlatDictionary(auto).save(output);
+            }
+            
+            MappedDictionary dict = Dictionary.map(file);
+            
+            Assert.assertEquals(23, dict.stateCount());
+            Assert.assertEquals(IntegrationTest.testSet, new HashSet<>(dict.listSuffixes("")));
+            Assert.assertEquals(auto.listSuffixes("abc"), dict.listSuffixes("abc"));
+            Assert.assertTrue(dict.contains("0abc0xyz0"));
+            Assert.assertFalse(dict.contains("0abc0xyz"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
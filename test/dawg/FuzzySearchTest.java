@@ -0,0 +1,108 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author hedge
+ */
+public class FuzzySearchTest {
+    
+    @Test
+    public void testDistances() {
+        Automaton auto = new Automaton();
+        
+        for (String value : new String[] { "кот", "кит", "кто", "код", "коты", "котёнок", "рот", "" }) {
+            auto.add(value);
+        }
+        
+        Map<String, Integer> result = auto.fuzzySearch("кот", 1);
+        
+        Assert.assertEquals(5, result.size());
+        Assert.assertEquals(Integer.valueOf(0), result.get("кот"));
+        Assert.assertEquals(Integer.valueOf(1), result.get("кит"));
+        Assert.assertEquals(Integer.valueOf(1), result.get("код"));
+        Assert.assertEquals(Integer.valueOf(1), result.get("коты"));
+        Assert.assertEquals(Integer.valueOf(1), result.get("рот"));
+        
+        Assert.assertEquals(Integer.valueOf(2), auto.fuzzySearch("кот", 2).get("кто"));
+        Assert.assertEquals(Integer.valueOf(3), auto.fuzzySearch("кот", 3).get(""));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeEdits() {
+        new Automaton().fuzzySearch("кот", -1);
+    }
+    
+    @Test
+    public void testAgainstBruteForce() {
+        Random random = new Random(3);
+        List<String> words = new ArrayList<>();
+        Automaton auto = new Automaton();
+        
+        for (int i = 0; i < 3000; i++) {
+            char[] word = new char[1 + random.nextInt(7)];
+            
+            for (int j = 0; j < word.length; j++) {
+                word[j] = (char) ('a' + random.nextInt(4));
+            }
+            
+            words.add(new String(word));
+            auto.add(new String(word));
+        }
+        
+        for (String query : new String[] { "abc", "dddd", "a", "", "abcdabc" }) {
+            Map<String, Integer> result = auto.fuzzySearch(query, 2);
+            
+            for (String word : words) {
+                int distance = distance(query, word);
+                Assert.assertEquals(word, distance <= 2 ? Integer.valueOf(distance) : null, result.get(word));
+            }
+        }
+    }
+    
+    private static int distance(String first, String second) {
+        int[][] matrix = new int[first.length() + 1][second.length() + 1];
+        
+        for (int i = 0; i <= first.length(); i++) {
+            for (int j = 0; j <= second.length(); j++) {
+                if (i == 0 || j == 0) {
+                    matrix[i][j] = i + j;
+                } else {
+                    int cost = first.charAt(i - 1) == second.charAt(j - 1) ? 0 : 1;
+                    matrix[i][j] = Math.min(Math.min(matrix[i - 1][j] + 1, matrix[i][j - 1] + 1), matrix[i - 1][j - 1] + cost);
+                }
+            }
+        }
+        
+        return matrix[first.length()][second.length()];
+    }
+}
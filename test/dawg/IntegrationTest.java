@@ -1,118 +1,274 @@
-/*
- * The MIT License
- *
- * Copyright 2020 hedgeonline.
- *
- * Permission is hereby granted, free of charge, to any person obtaining a copy
- * of this software and associated documentation files (the "Software"), to deal
- * in the Software without restriction, including without limitation the rights
- * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
- * copies of the Software, and to permit persons to whom the Software is
- * furnished to do so, subject to the following conditions:
- *
- * The above copyright notice and this permission notice shall be included in
- * all copies or substantial portions of the Software.
- *
- * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
- * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
- * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
- * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
- * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
- * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
- * THE SOFTWARE.
- */
-package dawg;
-
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
-import org.junit.Assert;
-import org.junit.Before;
-import org.junit.Test;
-
-/**
- *
- * @author hedge
- */
-public class IntegrationTest {
-    
-    Automaton dict = new Automaton();
-    
-    // For this string array total state count should equal 23 with 3 discarded state
-    protected static String[] testArray = {        
-        "abcxyz",
-        "abc0xyz",        
-        "abcxyz0",
-        "0abcxyz",
-        "0abcxyz0",
-        "0abc0xyz0",
-        "abcxyz"
-    };
-    
-    protected static Set<String> testSet = new HashSet<>(Arrays.asList(testArray));
-    
-    @Before
-    public void initDictionary() {
-        for (String value : testArray) {
-            dict.add(value);
-        }
-    }
-    
-    @Test
-    public void testOverallStateCount() {
-        Assert.assertEquals(23, dict.stateCount());
-        Assert.assertEquals(3, dict.discardedCount());
-    }
-    
-    @Test
-    public void testDictContent() {
-        List<String> result1 = dict.listSuffixes("");
-        List<String> result2 = dict.listSuffixes("abc1");
-        
-        // Testing that iterator does not return duplicate entries
-        Assert.assertEquals(testSet.size(), result1.size());
-        
-        // Testing that unique set of test array equals the unique set of dictionary entries
-        Assert.assertEquals(testSet, new HashSet<>(result1));
-        
-        // Testing that nothing is found for entry absent in the dictionary
-        Assert.assertEquals(0, result2.size());
-    }
-    
-    @Test
-    public void testInputOutput() throws IOException {
-        ByteArrayOutputStream baos1 = new ByteArrayOutputStream();
-        ByteArrayOutputStream baos2 = new ByteArrayOutputStream();
-        
-        // Saving full format with information for future editing
-        dict.save(baos1, true);
-        
-        // Saving read-only format which requires less space
-        dict.save(baos2, false);
-        
-        ByteArrayInputStream bais1 = new ByteArrayInputStream(baos1.toByteArray());
-        ByteArrayInputStream bais2 = new ByteArrayInputStream(baos2.toByteArray());
-        
-        Dictionary dict1 = Dictionary.load(bais1);
-        Dictionary dict2 = Dictionary.load(bais2);
-        
-        bais1.reset();
-        Automaton auto = Automaton.load(bais1);
-        
-        List<String> result1 = dict1.listSuffixes("");
-        List<String> result2 = dict2.listSuffixes("");
-        List<String> result3 = auto.listSuffixes("");
-        
-        Assert.assertEquals(testSet, new HashSet<>(result1));
-        Assert.assertEquals(testSet, new HashSet<>(result2));   
-        Assert.assertEquals(testSet, new HashSet<>(result3)); 
-        Assert.assertEquals(23, dict1.stateCount());
-        Assert.assertEquals(23, dict2.stateCount());
-        Assert.assertEquals(23, auto.stateCount());
-        Assert.assertEquals(3, auto.discardedCount());
-    }
-}
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author hedge
+ */
+public class IntegrationTest {
+    
+    Automaton dict = new Automaton();
+    
+    // For this string array total state count should equal 23 with 3 discarded state
+    protected static String[] testArray = {        
+        "abcxyz",
+        "abc0xyz",        
+        "abcxyz0",
+        "0abcxyz",
+        "0abcxyz0",
+        "0abc0xyz0",
+        "abcxyz"
+    };
+    
+    protected static Set<String> testSet = new HashSet<>(Arrays.asList(testArray));
+    
+    @Before
+    public void initDictionary() {
+        for (String value : testArray) {
+            dict.add(value);
+        }
+    }
+    
+    @Test
+    public void testOverallStateCount() {
+        Assert.assertEquals(23, dict.stateCount());
+        Assert.assertEquals(3, dict.discardedCount());
+    }
+    
+    @Test
+    public void testCompact() {
+        long index = dict.indexOf("abcxyz0");
+        dict.compact();
+        
+        Assert.assertEquals(20, dict.stateCount());
+        Assert.assertEquals(0, dict.discardedCount());
+        Assert.assertEquals(testSet, new HashSet<>(dict.listSuffixes("")));
+        Assert.assertEquals(index, dict.indexOf("abcxyz0"));
+        
+        // Depth-first numbering puts the first transition target right after its state
+        Assert.assertEquals(1, dict.getTarget(0, 0));
+        
+        dict.add("abcxy");
+        dict.remove("0abcxyz");
+        Assert.assertTrue(dict.contains("abcxy"));
+        Assert.assertFalse(dict.contains("0abcxyz"));
+        Assert.assertTrue(dict.contains("0abcxyz0"));
+    }
+    
+    @Test
+    public void testDictContent() {
+        List<String> result1 = dict.listSuffixes("");
+        List<String> result2 = dict.listSuffixes("abc1");
+        
+        // Testing that iterator does not return duplicate entries
+        Assert.assertEquals(testSet.size(), result1.size());
+        
+        // Testing that unique set of test array equals the unique set of dictionary entries
+        Assert.assertEquals(testSet, new HashSet<>(result1));
+        
+        // Testing that nothing is found for entry absent in the dictionary
+        Assert.assertEquals(0, result2.size());
+    }
+    
+    @Test
+    public void testCharCollector() {
+        final List<String> result = new ArrayList<>();
+        
+        dict.listSuffixes("0abc", new ICharCollector() {
+            @Override
+            public void collect(char[] buffer, int length) {
+                result.add(new String(buffer, 0, length));
+            }
+        });
+        
+        Assert.assertEquals(dict.listSuffixes("0abc"), result);
+        Assert.assertEquals(Arrays.asList("0xyz", "xyz", "xyz0"), dict.listSuffixes("abc"));
+        
+        // Long entries are walked without recursion
+        char[] longWord = new char[100000];
+        Arrays.fill(longWord, 'a');
+        dict.add(new String(longWord));
+        Assert.assertEquals(1, dict.listSuffixes("aaa").size());
+    }
+    
+    @Test
+    public void testIterator() {
+        Iterator<String> iterator = dict.iterateSuffixes("0abc");
+        
+        Assert.assertTrue(iterator.hasNext());
+        Assert.assertEquals("0xyz0", iterator.next());
+        Assert.assertEquals("xyz", iterator.next());
+        Assert.assertEquals("xyz0", iterator.next());
+        Assert.assertFalse(iterator.hasNext());
+        Assert.assertFalse(dict.iterateSuffixes("abc1").hasNext());
+        
+        Assert.assertEquals(Arrays.asList("0xyz", "xyz"), dict.listSuffixes("abc", 2));
+        Assert.assertEquals(dict.listSuffixes(""), dict.listSuffixes("", 100));
+    }
+    
+    @Test
+    public void testNumbering() throws IOException {
+        List<String> entries = dict.listSuffixes("");
+        
+        Assert.assertEquals(entries.size(), dict.wordCount());
+        
+        for (int i = 0; i < entries.size(); i++) {
+            Assert.assertEquals(i, dict.indexOf(entries.get(i)));
+            Assert.assertEquals(entries.get(i), dict.wordAt(i));
+        }
+        
+        Assert.assertEquals(-1, dict.indexOf("abc"));
+        Assert.assertEquals(-1, dict.indexOf("abc1"));
+        
+        // Counts are saved along with numbered automaton
+        dict.setNumbered(true);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        dict.save(baos, false);
+        Dictionary loaded = Dictionary.load(new ByteArrayInputStream(baos.toByteArray()));
+        
+        Assert.assertNotNull(loaded.counts);
+        Assert.assertEquals(2, loaded.indexOf("0abcxyz0"));
+        Assert.assertEquals("0abcxyz0", loaded.wordAt(2));
+        
+        // Counts follow further additions
+        dict.add("0");
+        Assert.assertEquals(0, dict.indexOf("0"));
+        Assert.assertEquals(3, dict.indexOf("0abcxyz0"));
+    }
+    
+    @Test
+    public void testLongNumbering() throws IOException {
+        // Every one of 32 positions holds a or b, 2^32 entries in 33 states
+        List<AutoState> states = new StateList();
+        
+        for (int i = 0; i < 32; i++) {
+            states.add(new AutoState(i == 0 ? '\0' : 'a', false, (short) 0, new char[] { 'a', 'b' }, new int[] { i + 1, i + 1 }));
+        }
+        
+        states.add(new AutoState('a', true, (short) 0, new char[0], new int[0]));
+        Automaton wide = new Automaton(states, new Register(states));
+        char[] last = new char[32];
+        Arrays.fill(last, 'b');
+        
+        wide.setNumbered(true);
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        wide.save(plain, false);
+        ByteArrayOutputStream compact = new ByteArrayOutputStream();
+        wide.saveCompact(compact);
+        
+        for (AbstractDictionary dictionary : new AbstractDictionary[] { wide, Dictionary.load(new ByteArrayInputStream(plain.toByteArray())), FlatDictionary.load(new ByteArrayInputStream(compact.toByteArray())) }) {
+            Assert.assertEquals(1L << 32, dictionary.wordCount());
+            Assert.assertEquals((1L << 32) - 1, dictionary.indexOf(new String(last)));
+            Assert.assertEquals(new String(last), dictionary.wordAt((1L << 32) - 1));
+            Assert.assertEquals(5, dictionary.indexOf("aaaaaaaaaaaaaaaaaaaaaaaaaaaaabab"));
+            Assert.assertEquals("aaaaaaaaaaaaaaaaaaaaaaaaaaaaabab", dictionary.wordAt(5));
+        }
+    }
+    
+    @Test
+    public void testBatch() {
+        String[] values = { "abcxyz0", "", "0abc", "abc0xyz", "0abcxyz", "abcxyz0", "xyz", "0abcxyz0" };
+        boolean[] result = new boolean[values.length];
+        
+        dict.contains(values, result);
+        
+        for (int i = 0; i < values.length; i++) {
+            Assert.assertEquals(values[i], dict.contains(values[i]), result[i]);
+        }
+        
+        List<List<String>> suffixes = dict.listSuffixes(values);
+        
+        for (int i = 0; i < values.length; i++) {
+            Assert.assertEquals(values[i], dict.listSuffixes(values[i]), suffixes.get(i));
+        }
+    }
+    
+    @Test
+    public void testLargeBatch() {
+        Random random = new Random(5);
+        String[] values = new String[1000];
+        
+        // Enough values to be merged, with duplicates and prefixes of each other
+        for (int i = 0; i < values.length; i++) {
+            String source = testArray[random.nextInt(testArray.length)];
+            values[i] = source.substring(0, random.nextInt(source.length() + 1));
+        }
+        
+        boolean[] result = new boolean[values.length];
+        dict.contains(values, result);
+        
+        for (int i = 0; i < values.length; i++) {
+            Assert.assertEquals(values[i], dict.contains(values[i]), result[i]);
+        }
+    }
+    
+    @Test
+    public void testInputOutput() throws IOException {
+        ByteArrayOutputStream baos1 = new ByteArrayOutputStream();
+        ByteArrayOutputStream baos2 = new ByteArrayOutputStream();
+        
+        // Saving full format with information for future editing
+        dict.save(baos1, true);
+        
+        // Saving read-only format which requires less space
+        dict.save(baos2, false);
+        
+        ByteArrayInputStream bais1 = new ByteArrayInputStream(baos1.toByteArray());
+        ByteArrayInputStream bais2 = new ByteArrayInputStream(baos2.toByteArray());
+        
+        Dictionary dict1 = Dictionary.load(bais1);
+        Dictionary dict2 = Dictionary.load(bais2);
+        
+        bais1.reset();
+        Automaton auto = Automaton.load(bais1);
+        
+        List<String> result1 = dict1.listSuffixes("");
+        List<String> result2 = dict2.listSuffixes("");
+        List<String> result3 = auto.listSuffixes("");
+        
+        Assert.assertEquals(testSet, new HashSet<>(result1));
+        Assert.assertEquals(testSet, new HashSet<>(result2));   
+        Assert.assertEquals(testSet, new HashSet<>(result3)); 
+        // Discarded states are not saved
+        Assert.assertEquals(20, dict1.stateCount());
+        Assert.assertEquals(20, dict2.stateCount());
+        Assert.assertEquals(20, auto.stateCount());
+        Assert.assertEquals(0, auto.discardedCount());
+    }
+}
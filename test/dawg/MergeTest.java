@@ -0,0 +1,178 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author hedge
+ */
+public class MergeTest {
+    
+    private static Automaton build(Iterable<String> values) {
+        Automaton auto = new Automaton();
+        
+        for (String value : values) {
+            auto.add(value);
+        }
+        
+        return auto;
+    }
+    
+    @Test
+    public void testMerge() {
+        Automaton base = build(Arrays.asList("cat", "cats", "dog", "dogs"));
+        Automaton extra = build(Arrays.asList("cat", "bat", "bats", "", "doge"));
+        
+        base.merge(new FlatDictionary(extra));
+        
+        Assert.assertEquals(Arrays.asList("", "bat", "bats", "cat", "cats", "dog", "doge", "dogs"), base.listSuffixes(""));
+        Assert.assertEquals(build(base.listSuffixes("")).depthFirstOrder().length, base.stateCount());
+        
+        // Merged automaton stays editable and minimal
+        base.add("bog");
+        Assert.assertTrue(base.remove("cat"));
+        Assert.assertEquals(Arrays.asList("", "bat", "bats", "bog", "cats", "dog", "doge", "dogs"), base.listSuffixes(""));
+        base.compact();
+        Assert.assertEquals(build(base.listSuffixes("")).depthFirstOrder().length, base.stateCount());
+    }
+    
+    @Test
+    public void testValues() {
+        Automaton base = new Automaton();
+        base.put("one", 1);
+        base.put("two", 2);
+        
+        Automaton update = new Automaton();
+        update.put("two", 22);
+        update.put("three", 3);
+        
+        Automaton union = Automaton.union(base, update, build(Arrays.asList("four")));
+        
+        Assert.assertTrue(union.hasValues());
+        Assert.assertEquals(1, union.get("one", -1));
+        Assert.assertEquals(22, union.get("two", -1));
+        Assert.assertEquals(3, union.get("three", -1));
+        Assert.assertEquals(0, union.get("four", -1));
+        Assert.assertEquals(-1, union.get("five", -1));
+    }
+    
+    @Test
+    public void testWeighted() throws IOException {
+        Automaton first = new Automaton();
+        first.add("car", 50);
+        first.add("cat", 90);
+        
+        Automaton second = new Automaton();
+        second.add("care", 70);
+        second.add("cab", 10);
+        
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        second.save(baos, false);
+        Dictionary loaded = Dictionary.load(new ByteArrayInputStream(baos.toByteArray()));
+        
+        for (Automaton union : new Automaton[] { Automaton.union(first, second), Automaton.union(build(Arrays.asList("cz")), loaded) }) {
+            Assert.assertTrue(union.isWeighted());
+            
+            baos = new ByteArrayOutputStream();
+            union.save(baos, false);
+            Dictionary saved = Dictionary.load(new ByteArrayInputStream(baos.toByteArray()));
+            
+            Assert.assertNotNull(saved.weights);
+            Assert.assertEquals(union.topK("c", 2), saved.topK("c", 2));
+        }
+        
+        Assert.assertEquals(Arrays.asList("cat", "care"), Automaton.union(first, second).topK("c", 2));
+    }
+    
+    @Test
+    public void testRandom() {
+        Random random = new Random(11);
+        List<AbstractDictionary> parts = new ArrayList<>();
+        TreeSet<String> all = new TreeSet<>();
+        
+        for (int part = 0; part < 4; part++) {
+            TreeSet<String> words = new TreeSet<>();
+            
+            for (int i = 0; i < 500; i++) {
+                StringBuilder word = new StringBuilder();
+                
+                for (int j = random.nextInt(7); j >= 0; j--) {
+                    word.append((char) ('a' + random.nextInt(5)));
+                }
+                
+                words.add(word.toString());
+            }
+            
+            parts.add(build(words));
+            all.addAll(words);
+        }
+        
+        Automaton union = Automaton.union(parts.toArray(new AbstractDictionary[parts.size()]));
+        
+        Assert.assertEquals(new ArrayList<>(all), union.listSuffixes(""));
+        Assert.assertEquals(build(all).depthFirstOrder().length, union.stateCount());
+    }
+    
+    @Test
+    public void testLongEntry() {
+        StringBuilder word = new StringBuilder();
+        
+        for (int i = 0; i < 20000; i++) {
+            word.append((char) ('a' + i % 26));
+        }
+        
+        Automaton base = build(Arrays.asList(word.toString(), "b"));
+        base.merge(build(Arrays.asList(word.substring(0, 10000), "c")));
+        
+        Assert.assertEquals(Arrays.asList(word.substring(0, 10000), word.toString(), "b", "c"), base.listSuffixes(""));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testReversed() {
+        new Automaton().merge(new Automaton(true));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testValuesWithWeights() {
+        Automaton weighted = new Automaton();
+        weighted.add("car", 50);
+        
+        Automaton valued = new Automaton();
+        valued.put("car", 7);
+        
+        weighted.merge(valued);
+    }
+    
+}
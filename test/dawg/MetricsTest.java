@@ -0,0 +1,225 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author hedge
+ */
+public class MetricsTest {
+    
+    @Test
+    public void testBuildMetrics() throws IOException {
+        DictionaryMetrics metrics = new DictionaryMetrics();
+        Automaton auto = new Automaton();
+        auto.setListener(metrics);
+        Random random = new Random(3);
+        
+        for (int i = 0; i < 5000; i++) {
+            char[] word = new char[1 + random.nextInt(7)];
+            
+            for (int j = 0; j < word.length; j++) {
+                word[j] = (char) ('a' + random.nextInt(4));
+            }
+            
+            auto.add(new String(word));
+        }
+        
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        auto.saveCompact(baos);
+        Dictionary live = Dictionary.load(new ByteArrayInputStream(baos.toByteArray()));
+        long transitions = 0;
+        
+        for (int state = 0; state < live.stateCount(); state++) {
+            transitions += live.transitionCount(state);
+        }
+        
+        Assert.assertEquals(transitions, metrics.getTransitions());
+        Assert.assertTrue(metrics.getRegisterHits() > 0);
+        Assert.assertTrue(metrics.getRegisterMisses() > 0);
+        Assert.assertTrue(metrics.getStatesCloned() > 0);
+        Assert.assertEquals(auto.discardedCount(), metrics.getStatesDiscarded() - metrics.getStatesReused());
+    }
+    
+    @Test
+    public void testQueryMetrics() {
+        DictionaryMetrics metrics = new DictionaryMetrics();
+        Automaton auto = new Automaton();
+        
+        for (String value : new String[] { "abc", "abd", "abcde", "x" }) {
+            auto.add(value);
+        }
+        
+        FlatDictionary flat = new FlatDictionary(auto);
+        flat.setListener(metrics);
+        
+        Assert.assertTrue(flat.contains("abc"));
+        Assert.assertFalse(flat.contains("y"));
+        Assert.assertEquals(2, metrics.getLookups());
+        Assert.assertEquals(4, metrics.getTransitionsVisited());
+        
+        Assert.assertEquals(3, flat.listSuffixes("ab").size());
+        Assert.assertEquals(3, metrics.getLookups());
+        Assert.assertEquals(1, metrics.getTraversals());
+        Assert.assertEquals(3, metrics.getSuffixesEmitted());
+        Assert.assertEquals(3, metrics.getMaxTraversalDepth());
+        Assert.assertEquals(6 + 4, metrics.getTransitionsVisited());
+        
+        metrics.reset();
+        flat.setListener(null);
+        flat.contains("abc");
+        Assert.assertEquals(0, metrics.getLookups());
+    }
+    
+    @Test
+    public void testPartialAndBatchMetrics() throws IOException {
+        DictionaryMetrics metrics = new DictionaryMetrics();
+        Automaton auto = new Automaton();
+        
+        for (String value : new String[] { "abc", "abd", "abcde", "x" }) {
+            auto.add(value);
+        }
+        
+        auto.setListener(metrics);
+        
+        Assert.assertEquals(1, auto.listSuffixes("ab", 1).size());
+        Assert.assertEquals(1, metrics.getTraversals());
+        Assert.assertEquals(1, metrics.getSuffixesEmitted());
+        Assert.assertEquals(2 + 1, metrics.getTransitionsVisited());
+        
+        Iterator<String> iterator = auto.iterateSuffixes("");
+        iterator.next();
+        ((Closeable) iterator).close();
+        ((Closeable) iterator).close();
+        Assert.assertEquals(2, metrics.getTraversals());
+        Assert.assertEquals(2, metrics.getSuffixesEmitted());
+        
+        metrics.reset();
+        auto.contains(new String[] { "abd", "abc", "y" }, new boolean[3]);
+        Assert.assertEquals(3, metrics.getLookups());
+        Assert.assertEquals(3 + 1 + 1, metrics.getTransitionsVisited());
+        
+        metrics.reset();
+        auto.fuzzySearch("abe", 1);
+        auto.listMatches("ab?");
+        auto.topK("", 2);
+        Assert.assertEquals(3, metrics.getTraversals());
+        Assert.assertEquals(2 + 2 + 2, metrics.getSuffixesEmitted());
+    }
+    
+    @Test
+    public void testScanMetrics() {
+        DictionaryMetrics metrics = new DictionaryMetrics();
+        Automaton auto = new Automaton();
+        
+        for (String value : new String[] { "abc", "abd", "abcde", "x" }) {
+            auto.add(value);
+        }
+        
+        auto.setListener(metrics);
+        auto.findAll("xabcde", new ISpanCollector() {
+            @Override
+            public void collect(int start, int end) {
+            }
+        });
+        Assert.assertEquals(6, metrics.getLookups());
+        Assert.assertEquals(1 + 5, metrics.getTransitionsVisited());
+        
+        metrics.reset();
+        Assert.assertEquals(1, auto.indexOf("abcde"));
+        Assert.assertEquals("abcde", auto.wordAt(1));
+        Assert.assertEquals(5, auto.longestMatch("abcdef", 0));
+        Assert.assertEquals(3, metrics.getLookups());
+        Assert.assertEquals(5 + 5 + 5, metrics.getTransitionsVisited());
+    }
+    
+    @Test
+    public void testBuilderMetrics() {
+        List<String> words = new ArrayList<>();
+        Random random = new Random(5);
+        
+        for (int i = 0; i < 20000; i++) {
+            words.add(Integer.toString(random.nextInt(1000000), 7));
+        }
+        
+        Collections.sort(words);
+        DictionaryMetrics metrics = new DictionaryMetrics();
+        AutomatonBuilder builder = new AutomatonBuilder();
+        builder.setListener(metrics);
+        
+        for (String word : words) {
+            builder.add(word);
+        }
+        
+        Automaton auto = builder.build();
+        Assert.assertEquals(auto.reachableTransitions(), metrics.getTransitions());
+        Assert.assertTrue(metrics.getRegisterHits() > 0);
+        
+        Automaton other = new Automaton();
+        other.add("zz");
+        other.add("10");
+        auto.merge(other);
+        Assert.assertEquals(auto.reachableTransitions(), metrics.getTransitions());
+        
+        DictionaryMetrics parallelMetrics = new DictionaryMetrics();
+        ParallelAutomatonBuilder parallel = new ParallelAutomatonBuilder(new ForkJoinPool(2), 4);
+        parallel.setListener(parallelMetrics);
+        Automaton built = parallel.build(words);
+        Assert.assertEquals(built.reachableTransitions(), parallelMetrics.getTransitions());
+        Assert.assertSame(parallelMetrics, built.getListener());
+    }
+    
+    @Test
+    public void testMBean() throws JMException {
+        DictionaryMetrics metrics = new DictionaryMetrics();
+        ObjectName name = metrics.register("test");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        
+        try {
+            metrics.lookup(5);
+            Assert.assertEquals(1L, server.getAttribute(name, "Lookups"));
+            Assert.assertEquals(5L, server.getAttribute(name, "TransitionsVisited"));
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+    
+}
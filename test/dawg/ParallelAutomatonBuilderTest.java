@@ -0,0 +1,81 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author hedge
+ */
+public class ParallelAutomatonBuilderTest {
+    
+    @Test
+    public void testSameAsSequential() {
+        Random random = new Random(11);
+        List<String> words = new ArrayList<>();
+        words.add("");
+        
+        for (int i = 0; i < 50000; i++) {
+            char[] word = new char[1 + random.nextInt(10)];
+            
+            for (int j = 0; j < word.length; j++) {
+                word[j] = (char) ('a' + random.nextInt(j < 2 ? 3 : 6));
+            }
+            
+            words.add(new String(word));
+        }
+        
+        Collections.sort(words);
+        AutomatonBuilder builder = new AutomatonBuilder();
+        
+        for (String word : words) {
+            builder.add(word);
+        }
+        
+        Automaton expected = builder.build();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        
+        try {
+            Automaton auto = new ParallelAutomatonBuilder(pool, 7).build(words);
+            
+            Assert.assertEquals(expected.stateCount() - expected.discardedCount(), auto.stateCount() - auto.discardedCount());
+            Assert.assertEquals(expected.listSuffixes(""), auto.listSuffixes(""));
+            Assert.assertTrue(auto.contains(""));
+            
+            // Merged automaton remains editable
+            auto.add("zzz");
+            expected.add("zzz");
+            Assert.assertEquals(expected.stateCount() - expected.discardedCount(), auto.stateCount() - auto.discardedCount());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author hedge
+ */
+public class RemoveTest {
+    
+    /**
+     * @return number of states reachable from the root
+     */
+    private static int liveStates(Automaton auto) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        auto.saveCompact(baos);
+        return Dictionary.load(new ByteArrayInputStream(baos.toByteArray())).stateCount();
+    }
+    
+    @Test
+    public void testRemove() {
+        Automaton auto = new Automaton();
+        
+        for (String value : new String[] { "", "кот", "коты", "кит", "рот" }) {
+            auto.add(value);
+        }
+        
+        auto.put("код", 5);
+        
+        Assert.assertTrue(auto.remove("кот"));
+        Assert.assertFalse(auto.remove("кот"));
+        Assert.assertFalse(auto.remove("ко"));
+        Assert.assertFalse(auto.remove("котик"));
+        Assert.assertTrue(auto.remove(""));
+        
+        Assert.assertEquals(Arrays.asList("кит", "код", "коты", "рот"), auto.listSuffixes(""));
+        Assert.assertEquals(5, auto.get("код", 0));
+        
+        Assert.assertTrue(auto.remove("коты"));
+        Assert.assertTrue(auto.remove("код"));
+        Assert.assertEquals(Arrays.asList("кит", "рот"), auto.listSuffixes(""));
+        
+        auto.add("кот");
+        Assert.assertEquals(Arrays.asList("кит", "кот", "рот"), auto.listSuffixes(""));
+    }
+    
+    @Test
+    public void testMinimality() throws IOException {
+        Random random = new Random(17);
+        List<String> words = new ArrayList<>();
+        DictionaryMetrics metrics = new DictionaryMetrics();
+        Automaton auto = new Automaton();
+        auto.setListener(metrics);
+        
+        for (int i = 0; i < 4000; i++) {
+            char[] word = new char[1 + random.nextInt(7)];
+            
+            for (int j = 0; j < word.length; j++) {
+                word[j] = (char) ('a' + random.nextInt(4));
+            }
+            
+            words.add(new String(word));
+            auto.add(new String(word));
+        }
+        
+        Collections.shuffle(words, random);
+        TreeSet<String> remaining = new TreeSet<>(words);
+        
+        for (String word : words.subList(0, 2500)) {
+            auto.remove(word);
+            remaining.remove(word);
+        }
+        
+        Automaton fresh = new Automaton();
+        
+        for (String word : remaining) {
+            fresh.add(word);
+        }
+        
+        Assert.assertEquals(new ArrayList<>(remaining), auto.listSuffixes(""));
+        Assert.assertEquals(liveStates(fresh), liveStates(auto));
+        Assert.assertEquals(auto.stateCount() - auto.discardedCount(), liveStates(auto));
+        
+        for (String word : words) {
+            auto.remove(word);
+        }
+        
+        Assert.assertTrue(auto.listSuffixes("").isEmpty());
+        Assert.assertEquals(1, liveStates(auto));
+        Assert.assertEquals(0, metrics.getTransitions());
+    }
+    
+    @Test
+    public void testReversed() {
+        Automaton auto = new Automaton(true);
+        auto.add("читать");
+        auto.add("писать");
+        
+        Assert.assertTrue(auto.remove("читать"));
+        Assert.assertEquals(Arrays.asList("писать"), auto.listBySuffix("ать"));
+    }
+    
+}
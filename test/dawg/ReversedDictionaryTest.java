@@ -0,0 +1,117 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author hedge
+ */
+public class ReversedDictionaryTest {
+    private Automaton auto;
+    
+    @Before
+    public void setUp() {
+        auto = new Automaton(true);
+        
+        for (String value : new String[] { "читать", "писать", "играть", "читал", "дом", "том" }) {
+            auto.add(value);
+        }
+        
+        auto.put("вести", 7);
+    }
+    
+    private void check(AbstractDictionary dict) {
+        Assert.assertTrue(dict.isReversed());
+        Assert.assertTrue(dict.contains("читать"));
+        Assert.assertTrue(dict.contains("дом"));
+        Assert.assertFalse(dict.contains("ьтатич"));
+        Assert.assertFalse(dict.contains("ать"));
+        Assert.assertEquals(7, dict.get("вести", -1));
+        
+        Assert.assertEquals(6, dict.longestSuffixMatch("прочитать"));
+        Assert.assertEquals(2, dict.longestSuffixMatch("лом"));
+        Assert.assertEquals(0, dict.longestSuffixMatch("кот"));
+        Assert.assertEquals(3, dict.longestSuffixMatch("знать"));
+        
+        Assert.assertEquals(Arrays.asList("играть", "писать", "читать"), dict.listBySuffix("ать"));
+        Assert.assertEquals(Arrays.asList("дом", "том"), dict.listBySuffix("ом"));
+        Assert.assertEquals(Arrays.asList("читал"), dict.listBySuffix("читал"));
+        Assert.assertTrue(dict.listBySuffix("ыть").isEmpty());
+        
+        boolean[] found = new boolean[3];
+        dict.contains(new String[] { "том", "мот", "писать" }, found);
+        Assert.assertArrayEquals(new boolean[] { true, false, true }, found);
+    }
+    
+    @Test
+    public void testLookups() {
+        check(auto);
+        check(new FlatDictionary(auto));
+    }
+    
+    @Test
+    public void testIO() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        auto.save(baos, false);
+        check(Dictionary.load(new ByteArrayInputStream(baos.toByteArray())));
+        check(FlatDictionary.load(new ByteArrayInputStream(baos.toByteArray())));
+        
+        baos = new ByteArrayOutputStream();
+        auto.save(baos, true);
+        Automaton loaded = Automaton.load(new ByteArrayInputStream(baos.toByteArray()));
+        check(loaded);
+        
+        loaded.add("знать");
+        Assert.assertEquals(Arrays.asList("знать", "играть", "писать", "читать"), loaded.listBySuffix("ать"));
+        
+        Path file = Files.createTempFile("dawg", ".bin");
+        
+        try {
+            try (OutputStream output = Files.newOutputStream(file)) {
+                new FlatDictionary(auto).save(output);
+            }
+            
+            check(Dictionary.map(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+    
+    @Test(expected = IllegalStateException.class)
+    public void testNotReversed() {
+        new Automaton().listBySuffix("ать");
+    }
+    
+}
@@ -0,0 +1,87 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author hedge
+ */
+public class ScannerTest {
+    
+    Automaton auto = new Automaton();
+    List<String> spans = new ArrayList<>();
+    
+    @Before
+    public void initDictionary() {
+        auto.add("new");
+        auto.add("new york");
+        auto.add("new york city");
+        auto.add("york");
+        auto.add("");
+    }
+    
+    private ISpanCollector collector(final CharSequence text) {
+        return new ISpanCollector() {
+            @Override
+            public void collect(int start, int end) {
+                spans.add(start + ":" + text.subSequence(start, end));
+            }
+        };
+    }
+    
+    @Test
+    public void testFindAll() {
+        String text = "in new york city";
+        auto.findAll(text, collector(text));
+        
+        Assert.assertEquals(Arrays.asList("3:new", "3:new york", "3:new york city", "7:york"), spans);
+    }
+    
+    @Test
+    public void testFindLongest() {
+        String text = "new york cit";
+        auto.findLongest(text, collector(text));
+        
+        Assert.assertEquals(Arrays.asList("0:new york", "4:york"), spans);
+        Assert.assertEquals(8, auto.longestMatch(text, 0));
+        Assert.assertEquals(-1, auto.longestMatch(text, 1));
+    }
+    
+    @Test
+    public void testCharArrayRegion() {
+        char[] text = "xx new york xx".toCharArray();
+        CharSequence sequence = CharBuffer.wrap(text);
+        auto.findLongest(sequence, 3, 11, collector(sequence));
+        
+        Assert.assertEquals(Arrays.asList("3:new york", "7:york"), spans);
+    }
+}
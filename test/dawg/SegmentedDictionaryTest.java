@@ -0,0 +1,114 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author hedge
+ */
+public class SegmentedDictionaryTest {
+    
+    Automaton auto = new Automaton();
+    
+    @Before
+    public void initDictionary() {
+        for (int i = 0; i < IntegrationTest.testArray.length; i++) {
+            auto.put(IntegrationTest.testArray[i], i % 3 - 1);
+        }
+    }
+    
+    private void check(SegmentedDictionary dict) {
+        Assert.assertEquals(auto.depthFirstOrder().length, dict.stateCount());
+        Assert.assertTrue(dict.hasValues());
+        Assert.assertEquals(IntegrationTest.testSet, new HashSet<>(dict.listSuffixes("")));
+        Assert.assertEquals(auto.listSuffixes("0abc"), dict.listSuffixes("0abc"));
+        Assert.assertTrue(dict.contains("abc0xyz"));
+        Assert.assertFalse(dict.contains("abc0xy"));
+        
+        for (String value : IntegrationTest.testArray) {
+            Assert.assertEquals(auto.get(value, 5), dict.get(value, 5));
+            Assert.assertEquals(auto.indexOf(value), dict.indexOf(value));
+        }
+        
+        Assert.assertEquals(auto.fuzzySearch("abc0xy", 1), dict.fuzzySearch("abc0xy", 1));
+    }
+    
+    @Test
+    public void testSegments() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        SegmentedDictionary.save(auto, baos);
+        
+        // Segments smaller than most arrays make every one of them span several
+        for (int bits : new int[] { 5, 6, 7, SegmentedDictionary.SEGMENT_BITS }) {
+            check(SegmentedDictionary.load(new ByteArrayInputStream(baos.toByteArray()), bits));
+        }
+    }
+    
+    @Test
+    public void testMapping() throws IOException {
+        Path file = Files.createTempFile("dawg", ".bin");
+        
+        try {
+            try (OutputStream output = Files.newOutputStream(file)) {
+                SegmentedDictionary.save(new FlatDictionary(auto), output);
+            }
+            
+            check(SegmentedDictionary.map(file, 6));
+            check(SegmentedDictionary.map(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+    
+    @Test
+    public void testReversed() throws IOException {
+        Automaton endings = new Automaton(true);
+        
+        for (String value : Arrays.asList("walking", "talking", "walked")) {
+            endings.add(value);
+        }
+        
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        SegmentedDictionary.save(endings, baos);
+        SegmentedDictionary dict = SegmentedDictionary.load(new ByteArrayInputStream(baos.toByteArray()), 5);
+        
+        Assert.assertTrue(dict.isReversed());
+        Assert.assertFalse(dict.hasValues());
+        Assert.assertTrue(dict.contains("talking"));
+        Assert.assertEquals(Arrays.asList("talking", "walking"), dict.listBySuffix("king"));
+    }
+    
+}
@@ -0,0 +1,161 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author hedge
+ */
+public class SnapshotTest {
+    
+    @Test
+    public void testIsolation() {
+        Automaton auto = new Automaton();
+        auto.add("кот");
+        auto.add("коты");
+        auto.put("кит", 3);
+        
+        Dictionary<AutoState> first = auto.snapshot();
+        
+        auto.add("котик");
+        auto.remove("коты");
+        auto.put("кит", 4);
+        auto.add("");
+        
+        Dictionary<AutoState> second = auto.snapshot();
+        auto.compact();
+        auto.add("рот");
+        
+        Assert.assertEquals(Arrays.asList("кит", "кот", "коты"), first.listSuffixes(""));
+        Assert.assertEquals(3, first.get("кит", 0));
+        Assert.assertTrue(first.hasValues());
+        Assert.assertEquals(Arrays.asList("", "кит", "кот", "котик"), second.listSuffixes(""));
+        Assert.assertEquals(4, second.get("кит", 0));
+        Assert.assertEquals(Arrays.asList("", "кит", "кот", "котик", "рот"), auto.listSuffixes(""));
+    }
+    
+    @Test
+    public void testCompactedStatesWritable() {
+        Automaton auto = new Automaton();
+        auto.add("кот");
+        auto.add("кит");
+        auto.snapshot();
+        auto.compact();
+        
+        AutoState root = auto.states.get(0);
+        auto.add("рот");
+        
+        Assert.assertSame(root, auto.states.get(0));
+    }
+    
+    private static class Published {
+        private final Dictionary<AutoState> snapshot;
+        private final int count;
+        
+        Published(Dictionary<AutoState> snapshot, int count) {
+            this.snapshot = snapshot;
+            this.count = count;
+        }
+    }
+    
+    @Test
+    public void testConcurrentReaders() throws InterruptedException {
+        final List<String> words = new ArrayList<>();
+        Random random = new Random(9);
+        
+        while (words.size() < 20000) {
+            char[] word = new char[2 + random.nextInt(8)];
+            
+            for (int j = 0; j < word.length; j++) {
+                word[j] = (char) ('a' + random.nextInt(6));
+            }
+            
+            if (!words.contains(new String(word))) {
+                words.add(new String(word));
+            }
+        }
+        
+        final Automaton auto = new Automaton();
+        final AtomicReference<Published> published = new AtomicReference<>(new Published(auto.snapshot(), 0));
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] readers = new Thread[3];
+        
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        int checked = 0;
+                        
+                        while (checked < words.size()) {
+                            Published current = published.get();
+                            checked = current.count;
+                            
+                            if (current.snapshot.wordCount() != current.count) {
+                                throw new AssertionError("Expected " + current.count + " words, got " + current.snapshot.wordCount());
+                            }
+                            
+                            for (int j = Math.max(0, checked - 50); j < checked; j++) {
+                                if (!current.snapshot.contains(words.get(j))) {
+                                    throw new AssertionError("Missing " + words.get(j));
+                                }
+                            }
+                            
+                            if (checked < words.size() && current.snapshot.contains(words.get(checked))) {
+                                throw new AssertionError("Unexpected " + words.get(checked));
+                            }
+                        }
+                    } catch (Throwable e) {
+                        failure.set(e);
+                    }
+                }
+            };
+            readers[i].start();
+        }
+        
+        for (int i = 0; i < words.size(); i++) {
+            auto.add(words.get(i));
+            
+            if (i % 100 == 99) {
+                published.set(new Published(auto.snapshot(), i + 1));
+            }
+        }
+        
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        
+        Assert.assertNull(failure.get());
+        Assert.assertEquals(words.size(), published.get().snapshot.wordCount());
+    }
+    
+}
@@ -0,0 +1,149 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author hedge
+ */
+public class TopKTest {
+    
+    private static Automaton build() {
+        Automaton auto = new Automaton();
+        auto.add("car", 50);
+        auto.add("card", 10);
+        auto.add("care", 70);
+        auto.add("cart", 10);
+        auto.add("cat", 90);
+        auto.add("dog", 100);
+        return auto;
+    }
+    
+    @Test
+    public void testTopK() {
+        Automaton auto = build();
+        
+        Assert.assertTrue(auto.isWeighted());
+        Assert.assertEquals(70, auto.get("care", -1));
+        Assert.assertEquals(Arrays.asList("cat", "care", "car"), auto.topK("c", 3));
+        Assert.assertEquals(Arrays.asList("care", "car", "card", "cart"), auto.topK("car", 10));
+        Assert.assertEquals(Arrays.asList("dog", "cat"), auto.topK("", 2));
+        Assert.assertEquals(Collections.EMPTY_LIST, auto.topK("x", 2));
+        Assert.assertEquals(Collections.EMPTY_LIST, auto.topK("c", 0));
+        
+        auto.remove("cat");
+        auto.add("cab", 80);
+        Assert.assertEquals(Arrays.asList("cab", "care"), auto.topK("c", 2));
+    }
+    
+    @Test
+    public void testSavedWeights() throws IOException {
+        Automaton auto = build();
+        
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        auto.save(plain, false);
+        ByteArrayOutputStream compact = new ByteArrayOutputStream();
+        auto.saveCompact(compact);
+        ByteArrayOutputStream editable = new ByteArrayOutputStream();
+        auto.save(editable, true);
+        
+        List<String> expected = Arrays.asList("cat", "care", "car");
+        
+        Assert.assertEquals(expected, Dictionary.load(new ByteArrayInputStream(plain.toByteArray())).topK("c", 3));
+        Assert.assertEquals(expected, FlatDictionary.load(new ByteArrayInputStream(compact.toByteArray())).topK("c", 3));
+        Assert.assertEquals(expected, new FlatDictionary(auto).topK("c", 3));
+        
+        ByteArrayOutputStream segmented = new ByteArrayOutputStream();
+        SegmentedDictionary.save(auto, segmented);
+        Assert.assertEquals(expected, SegmentedDictionary.load(new ByteArrayInputStream(segmented.toByteArray())).topK("c", 3));
+        
+        Automaton loaded = Automaton.load(new ByteArrayInputStream(editable.toByteArray()));
+        Assert.assertTrue(loaded.isWeighted());
+        Assert.assertNotNull(loaded.weights);
+        Assert.assertEquals(expected, loaded.topK("c", 3));
+    }
+    
+    @Test(expected = IllegalStateException.class)
+    public void testWeightAfterValue() {
+        Automaton auto = new Automaton();
+        auto.put("k", 7);
+        auto.add("k", 3);
+    }
+    
+    @Test(expected = IllegalStateException.class)
+    public void testValueAfterWeight() {
+        build().put("car", 1);
+    }
+    
+    @Test(expected = IllegalStateException.class)
+    public void testValuesNotRanked() {
+        Automaton auto = new Automaton();
+        auto.put("k", 7);
+        auto.topK("", 1);
+    }
+    
+    @Test
+    public void testRandom() {
+        Random random = new Random(7);
+        final Automaton auto = new Automaton();
+        List<String> words = new ArrayList<>();
+        
+        for (int i = 0; i < 3000; i++) {
+            StringBuilder word = new StringBuilder("a");
+            
+            for (int j = random.nextInt(6); j >= 0; j--) {
+                word.append((char) ('a' + random.nextInt(4)));
+            }
+            
+            auto.add(word.toString(), random.nextInt(50));
+        }
+        
+        for (String word : auto.listSuffixes("")) {
+            words.add(word);
+        }
+        
+        Collections.sort(words, new Comparator<String>() {
+            @Override
+            public int compare(String a, String b) {
+                int result = Long.compare(auto.get(b, 0), auto.get(a, 0));
+                return result != 0 ? result : a.compareTo(b);
+            }
+        });
+        
+        Assert.assertEquals(words.subList(0, 25), auto.topK("a", 25));
+    }
+    
+}
@@ -0,0 +1,131 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author hedge
+ */
+public class ValueTest {
+    
+    Automaton auto = new Automaton();
+    
+    @Before
+    public void initDictionary() {
+        auto.put("cat", 1);
+        auto.put("cats", 2);
+        auto.put("bat", 1);
+        auto.put("bats", 2);
+        auto.put("rat", 1);
+        auto.put("rats", 3);
+        auto.add("mat");
+    }
+    
+    @Test
+    public void testValues() {
+        Assert.assertTrue(auto.hasValues());
+        Assert.assertEquals(1, auto.get("cat", -1));
+        Assert.assertEquals(3, auto.get("rats", -1));
+        Assert.assertEquals(0, auto.get("mat", -1));
+        Assert.assertEquals(-1, auto.get("ca", -1));
+        Assert.assertEquals(-1, auto.get("dog", -1));
+        
+        auto.put("cat", 5);
+        Assert.assertEquals(5, auto.get("cat", -1));
+        Assert.assertEquals(1, auto.get("bat", -1));
+    }
+    
+    @Test
+    public void testStateSharing() {
+        AutomatonBuilder builder = new AutomatonBuilder();
+        builder.put("bat", 1);
+        builder.put("bats", 2);
+        builder.put("cat", 1);
+        builder.put("cats", 2);
+        Automaton sorted = builder.build();
+        
+        auto = new Automaton();
+        auto.put("cat", 1);
+        auto.put("cats", 2);
+        auto.put("bat", 1);
+        auto.put("bats", 2);
+        
+        // Equal tails with equal values are shared, "b" and "c" lead to different states
+        Assert.assertEquals(sorted.stateCount() - sorted.discardedCount(), auto.stateCount() - auto.discardedCount());
+        Assert.assertEquals(2, sorted.get("bats", -1));
+        
+        Automaton different = new Automaton();
+        different.put("cat", 1);
+        different.put("cats", 2);
+        different.put("bat", 1);
+        different.put("bats", 3);
+        Assert.assertTrue(different.stateCount() - different.discardedCount() > auto.stateCount() - auto.discardedCount());
+    }
+    
+    @Test
+    public void testInputOutput() throws IOException {
+        for (boolean editable : new boolean[] { true, false }) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            auto.save(baos, editable);
+            byte[] binary = baos.toByteArray();
+            
+            Dictionary dict = Dictionary.load(new ByteArrayInputStream(binary));
+            FlatDictionary flat = FlatDictionary.load(new ByteArrayInputStream(binary));
+            
+            Assert.assertEquals(3, dict.get("rats", -1));
+            Assert.assertEquals(3, flat.get("rats", -1));
+            Assert.assertEquals(0, flat.get("mat", -1));
+            
+            if (editable) {
+                Automaton loaded = Automaton.load(new ByteArrayInputStream(binary));
+                Assert.assertTrue(loaded.hasValues());
+                Assert.assertEquals(2, loaded.get("cats", -1));
+            }
+        }
+        
+        Path file = Files.createTempFile("dawg", ".bin");
+        
+        try {
+            try (OutputStream output = Files.newOutputStream(file)) {
+                new FlatDictionary(auto).save(output);
+            }
+            
+            MappedDictionary mapped = Dictionary.map(file);
+            Assert.assertEquals(2, mapped.get("bats", -1));
+            Assert.assertEquals(-1, mapped.get("bat1", -1));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 hedgeonline.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dawg;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author hedge
+ */
+public class WildcardPatternTest {
+    
+    @Test
+    public void testSyntax() {
+        Automaton auto = new Automaton();
+        
+        for (String value : new String[] { "кот", "кит", "кто", "код", "коты", "котами", "китами", "рот", "*", "" }) {
+            auto.add(value);
+        }
+        
+        Assert.assertEquals(Arrays.asList("кит", "код", "кот", "кто"), auto.listMatches("к??"));
+        Assert.assertEquals(Arrays.asList("кит", "китами", "код", "кот", "котами", "коты", "кто"), auto.listMatches("к*"));
+        Assert.assertEquals(Arrays.asList("китами", "котами"), auto.listMatches("*ами$"));
+        Assert.assertEquals(Arrays.asList("кит", "кот"), auto.listMatches("к[и-о]т"));
+        Assert.assertEquals(Arrays.asList("код", "кот"), auto.listMatches("ко[дт]"));
+        Assert.assertEquals(Arrays.asList("кит", "кто"), auto.listMatches("к[^о]?"));
+        Assert.assertEquals(Arrays.asList("кот", "рот"), auto.listMatches("[кр]от"));
+        Assert.assertEquals(Arrays.asList("*"), auto.listMatches("\\*"));
+        Assert.assertEquals(Arrays.asList(""), auto.listMatches(""));
+        Assert.assertEquals(10, auto.listMatches("*").size());
+        Assert.assertTrue(auto.listMatches("к?").isEmpty());
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnclosedClass() {
+        new Automaton().listMatches("к[от");
+    }
+    
+    @Test
+    public void testAgainstRegex() {
+        Random random = new Random(11);
+        Automaton auto = new Automaton();
+        
+        for (int i = 0; i < 3000; i++) {
+            char[] word = new char[random.nextInt(8)];
+            
+            for (int j = 0; j < word.length; j++) {
+                word[j] = (char) ('a' + random.nextInt(5));
+            }
+            
+            auto.add(new String(word));
+        }
+        
+        List<String> words = auto.listSuffixes("");
+        FlatDictionary flat = new FlatDictionary(auto);
+        
+        String[] patterns = { "a*", "*b", "?c*a", "[a-c]*[^b]", "*a*b*", "[be]?[ac-d]", "??", "a[bd]*e" };
+        String[] regexes = { "a.*", ".*b", ".c.*a", "[a-c].*[^b]", ".*a.*b.*", "[be].[ac-d]", "..", "a[bd].*e" };
+        
+        for (int i = 0; i < patterns.length; i++) {
+            List<String> expected = new ArrayList<>();
+            Pattern regex = Pattern.compile(regexes[i]);
+            
+            for (String word : words) {
+                if (regex.matcher(word).matches()) {
+                    expected.add(word);
+                }
+            }
+            
+            Assert.assertEquals(patterns[i], expected, auto.listMatches(patterns[i]));
+            Assert.assertEquals(patterns[i], expected, flat.listMatches(patterns[i]));
+        }
+    }
+    
+}